@@ -25,7 +25,9 @@ package pascal.taie.analysis;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
@@ -41,6 +43,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -97,6 +100,7 @@ public class ResultProcessor extends ProgramAnalysis {
                 .collect(Collectors.groupingBy(id -> World.get().getResult(id) != null));
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
+            dumpSolverMetrics(groups.get(false));
         }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
@@ -153,7 +157,12 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
+        processResults(getIntraMethods(), analyses,
+                (m, id) -> m.getIR().getResult(id));
+    }
+
+    private static Stream<JMethod> getIntraMethods() {
+        return World.get()
                 .getClassHierarchy()
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
@@ -161,7 +170,77 @@ public class ResultProcessor extends ProgramAnalysis {
                 .filter(m -> !m.isAbstract() && !m.isNative())
                 .sorted(Comparator.comparing(m ->
                         m.getIR().getStmt(0).getLineNumber()));
-        processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
+    }
+
+    /**
+     * Emits the solver metrics of given intra-procedural analyses in the
+     * format specified by option "metrics" (csv or json), in descending
+     * order of wall time, so that the most expensive methods come first.
+     */
+    private void dumpSolverMetrics(List<String> analyses) {
+        String format = getOptions().getString("metrics");
+        if (format == null) {
+            return;
+        }
+        List<Pair<String, SolverMetrics>> metrics = new ArrayList<>();
+        getIntraMethods().forEach(m -> analyses.forEach(id -> {
+            SolverMetrics sm = m.getIR().getResult(SolverMetrics.getResultKey(id));
+            if (sm != null) {
+                metrics.add(new Pair<>(id, sm));
+            }
+        }));
+        metrics.sort(Comparator.comparingLong(
+                (Pair<String, SolverMetrics> p) -> p.second().getWallTime())
+                .reversed());
+        String file = getOptions().getString("metrics-file");
+        PrintStream ps;
+        try {
+            ps = file != null ? new PrintStream(file) : System.out;
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("Failed to open metrics file", e);
+        }
+        switch (format) {
+            case "csv" -> dumpMetricsCSV(ps, metrics);
+            case "json" -> dumpMetricsJSON(ps, metrics);
+            default -> throw new ConfigException("Unknown metrics format: " + format);
+        }
+        if (file != null) {
+            ps.close();
+        }
+    }
+
+    private static void dumpMetricsCSV(
+            PrintStream ps, List<Pair<String, SolverMetrics>> metrics) {
+        ps.println("analysis,method,nodes,node-visits,transfers," +
+                "changing-transfers,wall-time-ns");
+        metrics.forEach(p -> {
+            SolverMetrics m = p.second();
+            ps.printf("%s,\"%s\",%d,%d,%d,%d,%d%n", p.first(),
+                    m.getMethod().toString().replace("\"", "\"\""),
+                    m.getNodes(), m.getNodeVisits(), m.getTransfers(),
+                    m.getChangingTransfers(), m.getWallTime());
+        });
+    }
+
+    private static void dumpMetricsJSON(
+            PrintStream ps, List<Pair<String, SolverMetrics>> metrics) {
+        ps.println("[");
+        for (int i = 0; i < metrics.size(); ++i) {
+            SolverMetrics m = metrics.get(i).second();
+            ps.printf("  {\"analysis\": \"%s\", \"method\": \"%s\", " +
+                            "\"nodes\": %d, \"nodeVisits\": %d, \"transfers\": %d, " +
+                            "\"changingTransfers\": %d, \"wallTimeNs\": %d}%s%n",
+                    escapeJSON(metrics.get(i).first()),
+                    escapeJSON(m.getMethod().toString()),
+                    m.getNodes(), m.getNodeVisits(), m.getTransfers(),
+                    m.getChangingTransfers(), m.getWallTime(),
+                    i + 1 < metrics.size() ? "," : "");
+        }
+        ps.println("]");
+    }
+
+    private static String escapeJSON(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
     }
 
     private void processResults(Stream<JMethod> methods, List<String> analyses,
@@ -64,6 +64,43 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     boolean transferNode(Node node, Fact in, Fact out);
 
+    /**
+     * An analysis may opt in to in-place solving. In that case, the solver
+     * keeps a single IN fact and a single OUT fact for each node during
+     * the whole solving, meets facts into them by
+     * {@link #meetIntoInPlace(Object, Object)}, and transfers them by
+     * {@link #transferNode(Object, Object, Object, Object)}, so that
+     * it does not need to allocate new facts when visiting nodes.
+     *
+     * @return true if this analysis supports in-place solving, otherwise false.
+     */
+    default boolean isInPlace() {
+        return false;
+    }
+
+    /**
+     * Meets a fact into another (target) fact, as {@link #meetInto(Object, Object)}.
+     * This method is used by in-place solving, where the target fact already
+     * holds the result of previous meets, thus it must be monotone.
+     *
+     * @return true if the target fact changed as a result of the call, otherwise false.
+     */
+    default boolean meetIntoInPlace(Fact fact, Fact target) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Node Transfer function for in-place solving.
+     * The scratch fact is owned by the solver and is shared by all nodes,
+     * the transfer function can use it as temporary storage instead of
+     * allocating new facts. Its content is unspecified when passed in.
+     *
+     * @return true if the transfer changed the out (in) fact, otherwise false.
+     */
+    default boolean transferNode(Node node, Fact in, Fact out, Fact scratch) {
+        return transferNode(node, in, out);
+    }
+
     /**
      * @return true if this analysis needs to perform transfer for given edge, otherwise false.
      */
@@ -74,36 +74,55 @@ public class LiveVariableAnalysis extends
         target.union(fact);
     }
 
+    @Override
+    public boolean isInPlace() {
+        return true;
+    }
+
+    @Override
+    public boolean meetIntoInPlace(SetFact<Var> fact, SetFact<Var> target) {
+        return target.union(fact);
+    }
+
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
         // TODO - finish me
-        // use U (out - def)
-        String log = "";
-        log += "TRANSFER: " + stmt + "\n";
-        
-        SetFact<Var> varSetFact = new SetFact<>();
-        var uses = stmt.getUses().stream()
-                .filter(use -> use instanceof Var).toList();
-        uses.forEach(use -> varSetFact.add((Var)use));
-        
-        var old_union = in.copy();
+        return transfer(stmt, in, out.copy());
+    }
 
-        in.union(out);
+    @Override
+    public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out,
+                                SetFact<Var> scratch) {
+        scratch.set(out);
+        return transfer(stmt, in, scratch);
+    }
+
+    /**
+     * Computes IN = use U (OUT - def) of given stmt.
+     *
+     * @param newIn a fact holding the content of OUT, which is modified
+     *              into the new IN fact
+     * @return true if IN changed, otherwise false.
+     */
+    private static boolean transfer(Stmt stmt, SetFact<Var> in, SetFact<Var> newIn) {
+        // 之前使用了 out.remove，导致对 out 本身的修改，直接导致结果的错误，查了很久
+        // 原因是陷入了 IN = use U (out - def) 的运算顺序的临近误区
+        // 现在先把 out 拷贝一份，再在拷贝上执行 - def 和 U use
         if (stmt.getDef().isPresent()) {
             LValue lValue = stmt.getDef().get();
-            if (lValue instanceof Var) {
-                // 之前使用了 out.remove，导致对 out 本身的修改，直接导致结果的错误，查了很久
-                // 原因是陷入了 IN = use U (out - def) 的运算顺序的临近误区
-                // 最后改成了 in = in U out, in = in - def, in = in U use 的执行顺序
-                in.remove(((Var) lValue));
-                log += "\tremove: " + lValue + ";";
+            if (lValue instanceof Var def) {
+                newIn.remove(def);
             }
         }
-        
-        in.union(varSetFact);
-        
-        log += "\tuses: " + uses + "\tresults: " + in;
-//        System.out.println(log);
-        return !in.equals(old_union);
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var) {
+                newIn.add(var);
+            }
+        }
+        if (in.equals(newIn)) {
+            return false;
+        }
+        in.set(newIn);
+        return true;
     }
 }
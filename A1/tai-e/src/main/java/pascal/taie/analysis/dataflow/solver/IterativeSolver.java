@@ -40,20 +40,25 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
     }
 
     @Override
-    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  SolverMetrics metrics) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   SolverMetrics metrics) {
         // TODO - finish me
+        // 每轮迭代访问所有结点，迭代轮数 = nodeVisits / nodes
+        if (analysis.isInPlace()) {
+            doSolveBackwardInPlace(cfg, result, metrics);
+            return;
+        }
         boolean changed = true;
-        int iterate_times = 0;
         while (changed) {
             changed = false;
-//            System.out.printf("iterate times: %d\n", iterate_times);
-            iterate_times++;
             for (Node node : cfg) {
+                metrics.visitNode();
                 // union all input
                 var target = analysis.newInitialFact();
                 assert target != null;
@@ -66,11 +71,41 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
                 var inFact = result.getInFact(node);
 
                 // Transfer function
-                if (analysis.transferNode(node, inFact, target))
+                if (metrics.transfer(analysis.transferNode(node, inFact, target)))
                     changed = true;
 
                 result.setInFact(node, inFact);
             }
         }
     }
+
+    /**
+     * Round-robin iteration that meets into the OUT facts kept in
+     * {@code result} and transfers through a single scratch fact,
+     * so that no fact is allocated per node visit.
+     * A node is re-transferred only when its OUT fact changes.
+     */
+    private void doSolveBackwardInPlace(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                        SolverMetrics metrics) {
+        Fact scratch = analysis.newInitialFact();
+        boolean firstPass = true;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Node node : cfg) {
+                metrics.visitNode();
+                Fact out = result.getOutFact(node);
+                boolean outChanged = false;
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    outChanged |= analysis.meetIntoInPlace(
+                            result.getInFact(succ), out);
+                }
+                if ((firstPass || outChanged) && metrics.transfer(analysis.transferNode(
+                        node, result.getInFact(node), out, scratch))) {
+                    changed = true;
+                }
+            }
+            firstPass = false;
+        }
+    }
 }
@@ -65,19 +65,24 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        return solve(cfg, new SolverMetrics());
+    }
+
+    /**
+     * Starts this solver on the given CFG, and records the statistics
+     * of solving in given metrics.
+     *
+     * @param cfg     control-flow graph where the analysis is performed on
+     * @param metrics the metrics to be filled by this solver
+     * @return the analysis result
+     */
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg, SolverMetrics metrics) {
+        metrics.start(cfg);
         DataflowResult<Node, Fact> result = initialize(cfg);
-        doSolve(cfg, result);
-        LogResult(cfg, result);
+        doSolve(cfg, result, metrics);
+        metrics.finish();
         return result;
     }
-    
-    public void LogResult(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        for (Node node : cfg.getNodes()) {
-            Fact inFact = result.getInFact(node);
-            Fact outFact = result.getOutFact(node);
-            System.out.println("\tIN: " + inFact + "\n" + node + "\n\tOUT: " + outFact + "\n");
-        }
-    }
 
     /**
      * Creates and initializes a new data-flow result for given CFG.
@@ -115,15 +120,18 @@ public abstract class Solver<Node, Fact> {
     /**
      * Solves the data-flow problem for given CFG.
      */
-    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                         SolverMetrics metrics) {
         if (analysis.isForward()) {
-            doSolveForward(cfg, result);
+            doSolveForward(cfg, result, metrics);
         } else {
-            doSolveBackward(cfg, result);
+            doSolveBackward(cfg, result, metrics);
         }
     }
 
-    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                           SolverMetrics metrics);
 
-    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                            SolverMetrics metrics);
 }
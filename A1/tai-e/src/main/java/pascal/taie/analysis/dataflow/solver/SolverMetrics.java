@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Statistics collected by a solver while solving a data-flow problem
+ * on one CFG. They help to find the methods which are expensive to analyze.
+ */
+public class SolverMetrics {
+
+    private JMethod method;
+
+    private int nodes;
+
+    private long nodeVisits;
+
+    private long transfers;
+
+    private long changingTransfers;
+
+    private long startTime;
+
+    private long wallTime;
+
+    /**
+     * @return the key of the metrics of given analysis in
+     * {@link pascal.taie.ir.IR}'s result holder.
+     */
+    public static String getResultKey(String analysisId) {
+        return analysisId + "-solver-metrics";
+    }
+
+    void start(CFG<?> cfg) {
+        method = cfg.getMethod();
+        nodes = cfg.getNumberOfNodes();
+        startTime = System.nanoTime();
+    }
+
+    void finish() {
+        wallTime = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Records that a node is visited by a round of iteration.
+     */
+    void visitNode() {
+        ++nodeVisits;
+    }
+
+    /**
+     * Records a call of transfer function.
+     *
+     * @param changed the return value of the transfer function
+     * @return {@code changed}.
+     */
+    boolean transfer(boolean changed) {
+        ++transfers;
+        if (changed) {
+            ++changingTransfers;
+        }
+        return changed;
+    }
+
+    /**
+     * @return the method whose CFG is solved.
+     */
+    public JMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the number of nodes of the solved CFG.
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    public long getNodeVisits() {
+        return nodeVisits;
+    }
+
+    public long getTransfers() {
+        return transfers;
+    }
+
+    /**
+     * @return the number of transfers which changed the facts.
+     */
+    public long getChangingTransfers() {
+        return changingTransfers;
+    }
+
+    /**
+     * @return the wall time of solving in nanoseconds.
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    @Override
+    public String toString() {
+        return "SolverMetrics{" +
+                "method=" + method +
+                ", nodes=" + nodes +
+                ", nodeVisits=" + nodeVisits +
+                ", transfers=" + transfers +
+                ", changingTransfers=" + changingTransfers +
+                ", wallTime=" + wallTime +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Static utility methods for building the CFGs to be benchmarked.
+ */
+public final class BenchmarkCFGs {
+
+    private BenchmarkCFGs() {
+    }
+
+    /**
+     * Seed of the random generator, so that all runs benchmark the same CFGs.
+     */
+    private static final long SEED = 20220423;
+
+    /**
+     * Builds the CFG of a synthetic method consisting of given number of
+     * statements over int variables. The statements are literal assignments,
+     * copies, arithmetic operations, and forward and backward branches,
+     * so the CFG contains nested loops like real methods.
+     */
+    public static CFG<Stmt> buildSynthetic(int size) {
+        Random random = new Random(SEED);
+        int nVars = Math.max(4, size / 8);
+        List<Var> vars = new ArrayList<>(nVars);
+        for (int i = 0; i < nVars; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        List<Stmt> stmts = new ArrayList<>(size);
+        List<Stmt> jumps = new ArrayList<>();
+        for (int i = 0; i < size - 1; ++i) {
+            Var lhs = vars.get(random.nextInt(nVars));
+            Var op1 = vars.get(random.nextInt(nVars));
+            Var op2 = vars.get(random.nextInt(nVars));
+            int kind = random.nextInt(10);
+            Stmt stmt;
+            if (kind < 3) {
+                stmt = new AssignLiteral(lhs, IntLiteral.get(random.nextInt(8)));
+            } else if (kind < 4) {
+                stmt = new Copy(lhs, op1);
+            } else if (kind < 8) {
+                ArithmeticExp.Op op = ArithmeticExp.Op.values()[random.nextInt(3)];
+                stmt = new Binary(lhs, new ArithmeticExp(op, op1, op2));
+            } else if (kind < 9) {
+                stmt = new If(new ConditionExp(ConditionExp.Op.LT, op1, op2));
+                jumps.add(stmt);
+            } else {
+                stmt = new Goto();
+                jumps.add(stmt);
+            }
+            stmts.add(stmt);
+        }
+        stmts.add(new Return());
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+            stmts.get(i).setLineNumber(i);
+        }
+        // forward jumps skip a few statements, backward jumps form loops
+        for (Stmt jump : jumps) {
+            int offset = random.nextInt(16) - 10;
+            int target = Math.min(Math.max(jump.getIndex() + offset, 0), size - 1);
+            if (jump instanceof If ifStmt) {
+                ifStmt.setTarget(stmts.get(target));
+            } else {
+                ((Goto) jump).setTarget(stmts.get(target));
+            }
+        }
+        IR ir = new DefaultIR(null, null, vars.subList(0, 2), Set.of(),
+                vars, stmts, List.of());
+        return buildCFG(ir);
+    }
+
+    /**
+     * Builds the world for given program in src/test/resources/dataflow,
+     * and the CFGs of all methods in its application classes.
+     *
+     * @param program the program, e.g., "deadcode/Loops".
+     */
+    public static List<CFG<Stmt>> buildProgram(String program) {
+        int i = program.lastIndexOf('/');
+        String classPath = "src/test/resources/dataflow/" + program.substring(0, i);
+        Main.buildWorld("-pp", "-cp", classPath, "-m", program.substring(i + 1));
+        return World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(m -> buildCFG(m.getIR()))
+                .toList();
+    }
+
+    private static CFG<Stmt> buildCFG(IR ir) {
+        CFGBuilder builder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false));
+        CFG<Stmt> cfg = builder.analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return cfg;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.DenseCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of data-flow facts, comparing the hash-based
+ * facts ({@link SetFact}, {@link CPFact}) with their dense counterparts
+ * ({@link BitSetFact}, {@link DenseCPFact}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactBenchmark {
+
+    /**
+     * Number of variables in the method, i.e., the size of the domain.
+     */
+    @Param({"16", "128", "1024"})
+    private int size;
+
+    private List<Var> vars;
+
+    private SetFact<Var> set1, set2;
+
+    private BitSetFact<Var> bitSet1, bitSet2;
+
+    private CPFact cp1, cp2;
+
+    private DenseCPFact denseCP1, denseCP2;
+
+    private ConstantPropagation constprop;
+
+    @Setup
+    public void setUp() {
+        vars = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        set1 = new SetFact<>();
+        set2 = new SetFact<>();
+        bitSet1 = new BitSetFact<>(vars);
+        bitSet2 = new BitSetFact<>(vars);
+        cp1 = new CPFact();
+        cp2 = new CPFact();
+        denseCP1 = new DenseCPFact(vars);
+        denseCP2 = new DenseCPFact(vars);
+        // each fact contains about half of the variables
+        Random random = new Random(size);
+        for (Var var : vars) {
+            if (random.nextBoolean()) {
+                set1.add(var);
+                bitSet1.add(var);
+                Value value = Value.makeConstant(random.nextInt(4));
+                cp1.update(var, value);
+                denseCP1.update(var, value);
+            }
+            if (random.nextBoolean()) {
+                set2.add(var);
+                bitSet2.add(var);
+                Value value = random.nextBoolean() ?
+                        Value.makeConstant(random.nextInt(4)) : Value.getNAC();
+                cp2.update(var, value);
+                denseCP2.update(var, value);
+            }
+        }
+        constprop = (ConstantPropagation) SolverBenchmark
+                .makeAnalysis(ConstantPropagation.ID);
+    }
+
+    @Benchmark
+    public SetFact<Var> copySetFact() {
+        return set1.copy();
+    }
+
+    @Benchmark
+    public SetFact<Var> copyBitSetFact() {
+        return bitSet1.copy();
+    }
+
+    @Benchmark
+    public boolean unionSetFact() {
+        return set1.copy().union(set2);
+    }
+
+    @Benchmark
+    public boolean unionBitSetFact() {
+        return bitSet1.copy().union(bitSet2);
+    }
+
+    @Benchmark
+    public boolean equalsSetFact() {
+        return set1.equals(set2);
+    }
+
+    @Benchmark
+    public boolean equalsBitSetFact() {
+        return bitSet1.equals(bitSet2);
+    }
+
+    @Benchmark
+    public CPFact copyCPFact() {
+        return cp1.copy();
+    }
+
+    @Benchmark
+    public CPFact copyDenseCPFact() {
+        return denseCP1.copy();
+    }
+
+    @Benchmark
+    public boolean meetCPFact() {
+        return constprop.meetIntoInPlace(cp2, cp1.copy());
+    }
+
+    @Benchmark
+    public boolean meetDenseCPFact() {
+        return constprop.meetIntoInPlace(denseCP2, denseCP1.copy());
+    }
+
+    @Benchmark
+    public boolean updateCPFact() {
+        CPFact fact = cp1.copy();
+        boolean changed = false;
+        for (Var var : vars) {
+            changed |= fact.update(var, Value.getNAC());
+        }
+        return changed;
+    }
+
+    @Benchmark
+    public boolean updateDenseCPFact() {
+        CPFact fact = denseCP1.copy();
+        boolean changed = false;
+        for (Var var : vars) {
+            changed |= fact.update(var, Value.getNAC());
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the data-flow solvers on the methods of the test programs
+ * in src/test/resources/dataflow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramBenchmark {
+
+    @Param({
+            "deadcode/ControlFlowUnreachable",
+            "deadcode/DeadAssignment",
+            "deadcode/Loops",
+            "deadcode/UnreachableIfBranch",
+            "deadcode/UnreachableSwitchBranch",
+    })
+    private String program;
+
+    @Param({"worklist", "priority", "wto"})
+    private String solver;
+
+    @Param({ConstantPropagation.ID, LiveVariableAnalysis.ID})
+    private String analysis;
+
+    private List<CFG<Stmt>> cfgs;
+
+    private Solver<Stmt, ?> dataflowSolver;
+
+    @Setup
+    public void setUp() {
+        cfgs = BenchmarkCFGs.buildProgram(program);
+        dataflowSolver = Solver.makeSolver(
+                SolverBenchmark.makeAnalysis(analysis), solver);
+    }
+
+    @Benchmark
+    public void solve(Blackhole bh) {
+        for (CFG<Stmt> cfg : cfgs) {
+            bh.consume(dataflowSolver.solve(cfg));
+        }
+    }
+}
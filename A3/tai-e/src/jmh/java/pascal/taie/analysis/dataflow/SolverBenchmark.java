@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the data-flow solvers on synthetic CFGs of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    /**
+     * Number of statements in the synthetic CFG.
+     */
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    /**
+     * Kind of the solver, see {@link Solver#makeSolver(DataflowAnalysis, String)}.
+     */
+    @Param({"worklist", "priority", "wto"})
+    private String solver;
+
+    @Param({ConstantPropagation.ID, LiveVariableAnalysis.ID})
+    private String analysis;
+
+    private CFG<Stmt> cfg;
+
+    private Solver<Stmt, ?> dataflowSolver;
+
+    @Setup
+    public void setUp() {
+        cfg = BenchmarkCFGs.buildSynthetic(size);
+        dataflowSolver = Solver.makeSolver(makeAnalysis(analysis), solver);
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, ?> solve() {
+        return dataflowSolver.solve(cfg);
+    }
+
+    /**
+     * Creates the analysis of given id with the options in plan.yml.
+     */
+    static DataflowAnalysis<Stmt, ?> makeAnalysis(String id) {
+        return switch (id) {
+            case ConstantPropagation.ID -> new ConstantPropagation(
+                    new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+            case LiveVariableAnalysis.ID -> new LiveVariableAnalysis(
+                    new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", false));
+            default -> throw new ConfigException("Unknown data-flow analysis: " + id);
+        };
+    }
+}
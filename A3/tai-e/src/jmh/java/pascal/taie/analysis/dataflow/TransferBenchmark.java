@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ConstantPropagation#transferNode(Stmt, CPFact, CPFact)}
+ * over all statements of a synthetic CFG, using the in-facts of
+ * the fixed point as inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private ConstantPropagation constprop;
+
+    private List<Stmt> stmts;
+
+    private List<CPFact> inFacts;
+
+    private List<CPFact> outFacts;
+
+    @Setup
+    public void setUp() {
+        CFG<Stmt> cfg = BenchmarkCFGs.buildSynthetic(size);
+        constprop = (ConstantPropagation) SolverBenchmark
+                .makeAnalysis(ConstantPropagation.ID);
+        DataflowResult<Stmt, CPFact> result = Solver
+                .makeSolver(constprop).solve(cfg);
+        stmts = cfg.getIR().getStmts();
+        inFacts = new ArrayList<>(stmts.size());
+        outFacts = new ArrayList<>(stmts.size());
+        for (Stmt stmt : stmts) {
+            inFacts.add(result.getInFact(stmt));
+            outFacts.add(constprop.newInitialFact(cfg));
+        }
+    }
+
+    @Benchmark
+    public int transferNode() {
+        int changes = 0;
+        for (int i = 0; i < stmts.size(); ++i) {
+            CPFact out = outFacts.get(i);
+            out.clear();
+            if (constprop.transferNode(stmts.get(i), inFacts.get(i), out)) {
+                ++changes;
+            }
+        }
+        return changes;
+    }
+}
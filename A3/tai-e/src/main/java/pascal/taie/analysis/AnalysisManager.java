@@ -0,0 +1,303 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Creates and executes analyses based on given analysis plan.
+ * <p>
+ * Method analyses are fanned out over the methods in scope with a
+ * fork-join pool, as the parallel stream of the prebuilt manager does
+ * with the common pool. The pool of each method analysis can be
+ * selected by its {@code parallelism} option:
+ * <ul>
+ *     <li>absent or {@code 0}: uses the common fork-join pool,</li>
+ *     <li>{@code 1}: analyzes the methods one by one on current thread,</li>
+ *     <li>{@code n > 1}: uses a dedicated fork-join pool of n workers.</li>
+ * </ul>
+ * The results of a method analysis are cached on disk if its
+ * {@code cache-dir} option is given, see {@link MethodResultCache}.
+ * Option {@code cache-size} limits the size of the cache in MB.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * Number of methods analyzed by a single fork-join task.
+     */
+    private static final int METHODS_PER_TASK = 8;
+
+    /**
+     * Default maximum size (in MB) of result caches.
+     */
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    /**
+     * Result caches of method analyses, by cache directories.
+     */
+    private final Map<String, MethodResultCache> caches = new HashMap<>();
+
+    /**
+     * Configurations of the executed analyses, in execution order.
+     */
+    private final List<AnalysisConfig> executedConfigs = new ArrayList<>();
+
+    /**
+     * Executes the analysis plan.
+     */
+    public void execute(List<AnalysisConfig> analysisConfigs) {
+        analysisConfigs.forEach(config -> {
+            executedConfigs.add(config);
+            Timer.runAndCount(() -> runAnalysis(config), config.getId());
+        });
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        Object analysis;
+        // Create analysis instance
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            analysis = ctor.newInstance(config);
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+        // Run the analysis
+        if (analysis instanceof ProgramAnalysis pa) {
+            runProgramAnalysis(pa);
+        } else if (analysis instanceof ClassAnalysis ca) {
+            runClassAnalysis(ca);
+        } else if (analysis instanceof MethodAnalysis ma) {
+            runMethodAnalysis(ma);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis");
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get()
+                        .getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get()
+                        .getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                // call graph is not available in this assignment
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        List<JMethod> methods = getMethodScope();
+        int parallelism = getParallelism(analysis);
+        MethodResultCache cache = getCache(analysis);
+        // the analyses executed before include the dependencies of
+        // current analysis, whose options also affect the results
+        String options = cache != null ?
+                MethodResultCache.describeOptions(executedConfigs) : null;
+        MethodAnalysisTask task = new MethodAnalysisTask(
+                analysis, cache, options, methods, 0, methods.size());
+        if (parallelism == 1) {
+            task.analyze();
+        } else if (parallelism == 0) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(task);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static int getParallelism(MethodAnalysis analysis) {
+        Object parallelism = analysis.getOptions().get("parallelism");
+        if (parallelism == null) {
+            return 0;
+        }
+        if (parallelism instanceof Integer i && i >= 0) {
+            return i;
+        }
+        throw new ConfigException("Invalid parallelism of " +
+                analysis.getId() + ": " + parallelism);
+    }
+
+    @Nullable
+    private MethodResultCache getCache(MethodAnalysis analysis) {
+        String dir = analysis.getOptions().getString("cache-dir");
+        if (dir == null) {
+            return null;
+        }
+        Object size = analysis.getOptions().get("cache-size");
+        if (size == null) {
+            size = DEFAULT_CACHE_SIZE;
+        }
+        if (!(size instanceof Integer i && i >= 0)) {
+            throw new ConfigException("Invalid cache-size of " +
+                    analysis.getId() + ": " + size);
+        }
+        long maxSize = (long) i << 20;
+        return caches.computeIfAbsent(dir,
+                d -> new MethodResultCache(Path.of(d), maxSize));
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                // call graph is not available in this assignment
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Fork-join task which runs a method analysis on a range of methods.
+     * <p>
+     * The results are stored into the IRs, whose result holders
+     * ({@link pascal.taie.util.AbstractResultHolder}) are thread-safe.
+     * Note that the analysis instance is shared by all tasks, so it must
+     * not keep per-method state in its fields.
+     */
+    private static class MethodAnalysisTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MethodAnalysis analysis;
+
+        @Nullable
+        private final MethodResultCache cache;
+
+        /**
+         * Options which the cached results depend on.
+         */
+        @Nullable
+        private final String options;
+
+        private final List<JMethod> methods;
+
+        private final int from;
+
+        private final int to;
+
+        private MethodAnalysisTask(MethodAnalysis analysis,
+                                   @Nullable MethodResultCache cache,
+                                   @Nullable String options,
+                                   List<JMethod> methods, int from, int to) {
+            this.analysis = analysis;
+            this.cache = cache;
+            this.options = options;
+            this.methods = methods;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= METHODS_PER_TASK) {
+                analyze();
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MethodAnalysisTask(analysis, cache, options, methods, from, mid),
+                        new MethodAnalysisTask(analysis, cache, options, methods, mid, to));
+            }
+        }
+
+        private void analyze() {
+            for (int i = from; i < to; ++i) {
+                IR ir = methods.get(i).getIR();
+                Object result = cache != null ?
+                        cache.analyze(analysis, options, ir) : analysis.analyze(ir);
+                if (result != null) {
+                    ir.storeResult(analysis.getId(), result);
+                }
+            }
+        }
+    }
+}
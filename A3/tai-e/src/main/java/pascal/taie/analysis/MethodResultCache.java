@@ -0,0 +1,359 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResultReader;
+import pascal.taie.analysis.dataflow.fact.DataflowResultWriter;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of the results of method analyses, which allows
+ * incremental runs to skip the methods that have not changed.
+ * <p>
+ * A result is keyed by the SHA-256 digest of the method signature,
+ * the ID of the analysis, the options of the analysis and of the analyses
+ * executed before it (which include its dependencies, e.g., the options
+ * of {@code cfg}), and the content of the IR (variables, stmts and
+ * exception entries), and is stored in a file
+ * named by the key in the cache directory. Data-flow results are stored
+ * in the format of {@link DataflowResultWriter}, and sets of stmts
+ * (e.g., the results of dead code detection) are stored as stmt indexes.
+ * Other results are not cached.
+ * <p>
+ * When the total size of the cached files exceeds the limit, the least
+ * recently used ones are evicted. The last-modified time of a file is
+ * updated when it is hit, so that the LRU order persists across runs.
+ */
+final class MethodResultCache {
+
+    private static final Logger logger = LogManager.getLogger(MethodResultCache.class);
+
+    /**
+     * Version of the cache, which is part of the keys, so that
+     * the files of other versions are never hit.
+     */
+    private static final String VERSION = "2";
+
+    private static final String SUFFIX = ".bin";
+
+    /**
+     * Options which only affect how an analysis is executed, but not
+     * its results, thus they are excluded from the keys.
+     */
+    private static final Pattern RUNTIME_OPTIONS = Pattern.compile(
+            "(?<=[{ ])(parallelism|cache-dir|cache-size)=[^,}]*(, )?");
+
+    private static final byte DATAFLOW_RESULT = 0;
+
+    private static final byte STMT_SET = 1;
+
+    private final Path dir;
+
+    private final long maxSize;
+
+    /**
+     * Sizes of the cached files (by keys), in LRU order.
+     */
+    private final Map<String, Long> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalSize;
+
+    /**
+     * Opens the cache in given directory, which is created if absent.
+     *
+     * @param maxSize maximum total size of the cached files in bytes.
+     */
+    MethodResultCache(Path dir, long maxSize) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                        .sorted(Comparator.comparing(MethodResultCache::getLastModifiedTime))
+                        .forEach(f -> {
+                            String name = f.getFileName().toString();
+                            long size = f.toFile().length();
+                            entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                            totalSize += size;
+                        });
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open result cache " + dir, e);
+        }
+        // the limit may be lowered since last run
+        evict();
+        logger.info("{} results ({} bytes) in result cache {}",
+                entries.size(), totalSize, dir);
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Describes the options which the results of an analysis depend on.
+     *
+     * @param configs configurations of the analysis and of the analyses
+     *                executed before it.
+     */
+    static String describeOptions(List<AnalysisConfig> configs) {
+        StringBuilder options = new StringBuilder();
+        for (AnalysisConfig config : configs) {
+            options.append(config.getId()).append(':')
+                    .append(RUNTIME_OPTIONS.matcher(config.getOptions().toString())
+                            .replaceAll("")
+                            .replace(", }", "}"))
+                    .append('\n');
+        }
+        return options.toString();
+    }
+
+    /**
+     * Returns the cached result of the analysis on given IR, or analyzes
+     * the IR and caches the result if it is not cached.
+     *
+     * @param options the options which the results of the analysis
+     *                depend on, see {@link #describeOptions(List)}.
+     */
+    Object analyze(MethodAnalysis analysis, String options, IR ir) {
+        String key = computeKey(analysis, options, ir);
+        Object result = load(key, analysis, ir);
+        if (result == null) {
+            result = analysis.analyze(ir);
+            if (result != null) {
+                store(key, analysis, ir, result);
+            }
+        }
+        return result;
+    }
+
+    private static String computeKey(MethodAnalysis analysis, String options, IR ir) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException(e);
+        }
+        StringBuilder content = new StringBuilder()
+                .append(VERSION).append('\n')
+                .append(ir.getMethod()).append('\n')
+                .append(analysis.getId()).append('\n')
+                .append(options);
+        for (Var var : ir.getVars()) {
+            content.append(var.getName()).append(':')
+                    .append(var.getType()).append('\n');
+        }
+        for (Stmt stmt : ir) {
+            content.append(IRPrinter.toString(stmt)).append('\n');
+        }
+        for (ExceptionEntry entry : ir.getExceptionEntries()) {
+            content.append(entry.start().getIndex()).append('-')
+                    .append(entry.end().getIndex()).append(':')
+                    .append(entry.handler().getIndex()).append(':')
+                    .append(entry.catchType()).append('\n');
+        }
+        return HexFormat.of().formatHex(digest.digest(
+                content.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Path getFile(String key) {
+        return dir.resolve(key + SUFFIX);
+    }
+
+    /**
+     * @return the cached result for given key, or null if it is not cached.
+     */
+    private Object load(String key, MethodAnalysis analysis, IR ir) {
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = getFile(key);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            Object result = switch (in.readByte()) {
+                case DATAFLOW_RESULT -> readDataflowResult(in, analysis, ir);
+                case STMT_SET -> readStmtSet(in, ir);
+                default -> throw new IOException("Unknown kind of cached result");
+            };
+            Files.setLastModifiedTime(file,
+                    FileTime.fromMillis(System.currentTimeMillis()));
+            return result;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load cached result of {} for {}: {}",
+                    analysis.getId(), ir.getMethod(), e.toString());
+            remove(key);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object readDataflowResult(
+            DataInputStream in, MethodAnalysis analysis, IR ir) throws IOException {
+        FactCodec<Object> codec = ((DataflowAnalysis<Stmt, Object>) analysis)
+                .getFactCodec();
+        if (codec == null) {
+            throw new IOException("No fact codec for " + analysis.getId());
+        }
+        DataflowResultReader reader = new DataflowResultReader(in);
+        if (!reader.next()) {
+            throw new IOException("Empty cached result");
+        }
+        return reader.read(ir, codec);
+    }
+
+    private static Set<Stmt> readStmtSet(DataInputStream in, IR ir)
+            throws IOException {
+        Set<Stmt> stmts = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        int size = in.readInt();
+        for (int i = 0; i < size; ++i) {
+            stmts.add(ir.getStmt(in.readInt()));
+        }
+        return stmts;
+    }
+
+    /**
+     * Caches the result for given key if the result is supported.
+     */
+    @SuppressWarnings("unchecked")
+    private void store(String key, MethodAnalysis analysis, IR ir, Object result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (analysis instanceof DataflowAnalysis<?, ?> dataflow
+                    && result instanceof NodeResult<?, ?>) {
+                FactCodec<Object> codec = (FactCodec<Object>) dataflow.getFactCodec();
+                if (codec == null) {
+                    return;
+                }
+                out.writeByte(DATAFLOW_RESULT);
+                DataflowResultWriter writer = new DataflowResultWriter(out);
+                writer.write(ir, analysis.getId(),
+                        (NodeResult<Stmt, Object>) result, codec);
+                writer.flush();
+            } else if (result instanceof Set<?> set
+                    && set.stream().allMatch(e -> e instanceof Stmt)) {
+                out.writeByte(STMT_SET);
+                out.writeInt(set.size());
+                for (Object stmt : set) {
+                    out.writeInt(((Stmt) stmt).getIndex());
+                }
+            } else {
+                return;
+            }
+        } catch (IOException e) {
+            throw new AnalysisException(e);
+        }
+        Path file = getFile(key);
+        try {
+            // write to a temporary file first, so that concurrent runs
+            // sharing the cache never see a partially written file
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache result of {} for {}: {}",
+                    analysis.getId(), ir.getMethod(), e.toString());
+            return;
+        }
+        synchronized (entries) {
+            Long oldSize = entries.put(key, (long) bytes.size());
+            totalSize += bytes.size() - (oldSize != null ? oldSize : 0);
+            evict();
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (entries) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalSize -= size;
+            }
+        }
+        try {
+            Files.deleteIfExists(getFile(key));
+        } catch (IOException e) {
+            logger.warn("Failed to remove cached result {}", getFile(key));
+        }
+    }
+
+    /**
+     * Evicts the least recently used files until the total size
+     * of the cache is within the limit.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalSize > maxSize && it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            it.remove();
+            totalSize -= entry.getValue();
+            try {
+                Files.deleteIfExists(getFile(entry.getKey()));
+            } catch (IOException e) {
+                logger.warn("Failed to evict cached result {}",
+                        getFile(entry.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.util.collection.Pair;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the results dumped by {@link ResultProcessor}, which supports
+ * looking up the results of a (method, analysis) pair, and the result
+ * of the i-th statement in it, in constant time.
+ * <p>
+ * Both the results file and the index are memory-mapped, so that large
+ * results are not loaded into memory. The index can be persisted to
+ * a file, and is rebuilt when the results file changes. Its layout is:
+ * <pre>
+ * header:   int magic, int version, long results size,
+ *           long results last-modified time, int number of slots
+ * slots:    (int hash, int header line offset + 1, int table position),
+ *           an open-addressing hash table, 0 offset means empty slot
+ * tables:   int number of lines, int line offsets ...
+ * </pre>
+ * Blank lines are not indexed. Note that the files are mapped as a whole,
+ * thus they must be smaller than 2GB.
+ */
+final class ResultIndex {
+
+    private static final int MAGIC = 0x54414958; // "TAIX"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+
+    private static final int SLOT_SIZE = 4 + 4 + 4;
+
+    private static final byte[] SEPARATOR =
+            "----------".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The memory-mapped results file.
+     */
+    private final ByteBuffer results;
+
+    private final ByteBuffer index;
+
+    private final int slotCount;
+
+    private ResultIndex(ByteBuffer results, ByteBuffer index) {
+        this.results = results;
+        this.index = index;
+        this.slotCount = index.getInt(HEADER_SIZE - 4);
+    }
+
+    /**
+     * Opens the index of given results file.
+     *
+     * @param resultsFile the results dumped by {@link ResultProcessor}.
+     * @param indexFile   the file to persist the index. If it is null,
+     *                    the index is built in memory and not persisted.
+     */
+    static ResultIndex open(Path resultsFile, @Nullable Path indexFile)
+            throws IOException {
+        ByteBuffer results = map(resultsFile);
+        long size = Files.size(resultsFile);
+        long lastModified = Files.getLastModifiedTime(resultsFile).toMillis();
+        if (indexFile != null && Files.exists(indexFile)) {
+            ByteBuffer index = map(indexFile);
+            if (index.capacity() >= HEADER_SIZE
+                    && index.getInt(0) == MAGIC
+                    && index.getInt(4) == VERSION
+                    && index.getLong(8) == size
+                    && index.getLong(16) == lastModified) {
+                return new ResultIndex(results, index);
+            }
+        }
+        ByteBuffer index = build(results, size, lastModified);
+        if (indexFile != null) {
+            try (FileChannel channel = FileChannel.open(indexFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer src = index.duplicate().rewind();
+                while (src.hasRemaining()) {
+                    channel.write(src);
+                }
+            }
+        }
+        return new ResultIndex(results, index);
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be mapped");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Scans the results and builds the index.
+     */
+    private static ByteBuffer build(ByteBuffer results, long size, long lastModified) {
+        Map<Pair<String, String>, Lines> sections = new LinkedHashMap<>();
+        Lines current = null;
+        int limit = results.limit();
+        for (int start = 0; start < limit; ) {
+            int end = lineEnd(results, start);
+            // header-looking lines without a key are ordinary content
+            Pair<String, String> key = isHeader(results, start, end) ?
+                    ResultProcessor.extractKey(decode(results, start, end)) : null;
+            if (key != null) {
+                int headerOffset = start;
+                current = sections.computeIfAbsent(key,
+                        k -> new Lines(headerOffset));
+            } else if (current != null && !isBlank(results, start, end)) {
+                current.add(start);
+            }
+            start = end < limit ? end + 1 : limit;
+        }
+        int slotCount = Integer.highestOneBit(Math.max(sections.size(), 1)) << 2;
+        long tablesSize = 0;
+        for (Lines lines : sections.values()) {
+            tablesSize += 4 + 4L * lines.size;
+        }
+        long capacity = HEADER_SIZE + (long) SLOT_SIZE * slotCount + tablesSize;
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Index of results is too large");
+        }
+        ByteBuffer index = ByteBuffer.allocate((int) capacity);
+        index.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(size)
+                .putLong(lastModified)
+                .putInt(slotCount);
+        int tablePos = HEADER_SIZE + SLOT_SIZE * slotCount;
+        index.position(tablePos);
+        for (var entry : sections.entrySet()) {
+            Pair<String, String> key = entry.getKey();
+            Lines lines = entry.getValue();
+            int slot = findSlot(index, slotCount, hash(key.first(), key.second()));
+            index.putInt(slot, hash(key.first(), key.second()))
+                    .putInt(slot + 4, lines.headerOffset + 1)
+                    .putInt(slot + 8, index.position());
+            index.putInt(lines.size);
+            for (int i = 0; i < lines.size; ++i) {
+                index.putInt(lines.offsets[i]);
+            }
+        }
+        return index.rewind();
+    }
+
+    /**
+     * @return the position of the first empty slot for given hash.
+     */
+    private static int findSlot(ByteBuffer index, int slotCount, int hash) {
+        int mask = slotCount - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int slot = HEADER_SIZE + SLOT_SIZE * i;
+            if (index.getInt(slot + 4) == 0) {
+                return slot;
+            }
+        }
+    }
+
+    private static int hash(String method, String analysis) {
+        int h = method.hashCode() * 31 + analysis.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the results of given method and analysis, or null if
+     * the results do not contain them.
+     */
+    @Nullable
+    Section getSection(String method, String analysis) {
+        int hash = hash(method, analysis);
+        int mask = slotCount - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int slot = HEADER_SIZE + SLOT_SIZE * i;
+            int start = index.getInt(slot + 4) - 1;
+            if (start < 0) {
+                return null;
+            }
+            if (index.getInt(slot) == hash) {
+                Pair<String, String> key = ResultProcessor.extractKey(
+                        decode(results, start, lineEnd(results, start)));
+                if (key != null && key.first().equals(method)
+                        && key.second().equals(analysis)) {
+                    return new Section(index.getInt(slot + 8));
+                }
+            }
+        }
+    }
+
+    /**
+     * Non-blank lines of the results of a (method, analysis) pair.
+     */
+    class Section {
+
+        /**
+         * Position of the line table of this section in the index.
+         */
+        private final int table;
+
+        private Section(int table) {
+            this.table = table;
+        }
+
+        int size() {
+            return index.getInt(table);
+        }
+
+        /**
+         * @return the i-th line of this section, or null if i is out of range.
+         */
+        @Nullable
+        String getLine(int i) {
+            if (i < 0 || i >= size()) {
+                return null;
+            }
+            int start = index.getInt(table + 4 + 4 * i);
+            return decode(results, start, lineEnd(results, start));
+        }
+
+        List<String> getLines() {
+            List<String> lines = new ArrayList<>(size());
+            for (int i = 0; i < size(); ++i) {
+                lines.add(getLine(i));
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * @return the offset of the line terminator ('\n') of the line starting
+     * at given offset, or the limit of the buffer if the line is not terminated.
+     */
+    private static int lineEnd(ByteBuffer buffer, int start) {
+        int limit = buffer.limit();
+        int i = start;
+        while (i < limit && buffer.get(i) != '\n') {
+            ++i;
+        }
+        return i;
+    }
+
+    /**
+     * Decodes a line, without its trailing '\r' if present.
+     */
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            --end;
+        }
+        return StandardCharsets.UTF_8.decode(
+                buffer.slice(start, end - start)).toString();
+    }
+
+    private static boolean isHeader(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            --end;
+        }
+        return end - start >= SEPARATOR.length * 2
+                && matches(buffer, start, SEPARATOR)
+                && matches(buffer, end - SEPARATOR.length, SEPARATOR);
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, byte[] bytes) {
+        for (int i = 0; i < bytes.length; ++i) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; ++i) {
+            if (buffer.get(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Growable list of line offsets of a section.
+     */
+    private static class Lines {
+
+        private final int headerOffset;
+
+        private int[] offsets = new int[16];
+
+        private int size;
+
+        private Lines(int headerOffset) {
+            this.headerOffset = headerOffset;
+        }
+
+        private void add(int offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+    }
+}
@@ -25,22 +25,37 @@ package pascal.taie.analysis;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFactCodec;
+import pascal.taie.analysis.dataflow.fact.DataflowResultWriter;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Pair;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.FileNotFoundException;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -51,6 +66,7 @@ import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static pascal.taie.util.collection.CollectionUtils.getOne;
 
@@ -59,6 +75,12 @@ import static pascal.taie.util.collection.CollectionUtils.getOne;
  * This class is designed mainly for testing purpose. Currently, it supports
  * input/output analysis results from/to file, and compare analysis results
  * with input results. This analysis should be placed after the other analyses.
+ * <p>
+ * Results are dumped method by method through a buffered writer, and are
+ * gzip-compressed if option "gzip" is true. Option "format" specifies the
+ * format of dumped results, which is either "text" (the default), or
+ * "binary", the compact format of {@link DataflowResultWriter}, which
+ * only supports the results of data-flow analyses.
  */
 public class ResultProcessor extends ProgramAnalysis {
 
@@ -66,11 +88,39 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private static final Logger logger = LogManager.getLogger(ResultProcessor.class);
 
+    /**
+     * Size of the buffers for dumping results.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
     private final String action;
 
-    private PrintStream out;
+    private Writer out;
+
+    /**
+     * Writer of results in binary format. Exactly one of {@link #out}
+     * and this field is non-null when dumping results.
+     */
+    private DataflowResultWriter binaryOut;
+
+    /**
+     * IDs of the analyses whose results cannot be dumped in binary format.
+     */
+    private final Set<String> nonBinaryAnalyses = new LinkedHashSet<>();
+
+    /**
+     * The gzip stream under the output, or null if the output
+     * is not compressed.
+     */
+    private GZIPOutputStream gzipOut;
+
+    /**
+     * Whether the output is opened by this analysis, and thus
+     * should be closed after dumping.
+     */
+    private boolean closeOut;
 
-    private MultiMap<Pair<String, String>, String> inputs;
+    private ResultIndex inputs;
 
     private Set<String> mismatches;
 
@@ -98,6 +148,14 @@ public class ResultProcessor extends ProgramAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
+        if (action.equals("dump")) {
+            // flush the results before the metrics,
+            // which may also be written to standard output
+            closeOutput();
+        }
+        if (groups.containsKey(false)) {
+            dumpSolverMetrics(groups.get(false));
+        }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
         }
@@ -106,39 +164,65 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private void setOutput() {
         String output = getOptions().getString("file");
-        if (output != null) {
-            try {
-                out = new PrintStream(output);
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException("Failed to open output file", e);
+        try {
+            OutputStream os;
+            if (output != null) {
+                os = Files.newOutputStream(Path.of(output));
+                closeOut = true;
+            } else {
+                os = System.out;
+                closeOut = false;
             }
-        } else {
-            out = System.out;
+            if (getOptions().getBooleanOrDefault("gzip", false)) {
+                os = gzipOut = new GZIPOutputStream(os, BUFFER_SIZE);
+            }
+            String format = getOptions().getString("format");
+            if (format == null) {
+                format = "text";
+            }
+            switch (format) {
+                case "text" -> out = new BufferedWriter(new OutputStreamWriter(
+                        os, StandardCharsets.UTF_8), BUFFER_SIZE);
+                case "binary" -> binaryOut = new DataflowResultWriter(os);
+                default -> throw new ConfigException(
+                        "Unknown result format: " + format);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open output file", e);
+        }
+    }
+
+    private void closeOutput() {
+        Closeable output = out != null ? out : binaryOut;
+        try {
+            ((Flushable) output).flush();
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+            if (closeOut) {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close output file", e);
         }
     }
 
+    /**
+     * Opens the input results through a {@link ResultIndex}, which is
+     * persisted to option "index-file" if it is given.
+     */
     private void readInputs() {
         String input = getOptions().getString("file");
-        Path path = Path.of(input);
+        String indexFile = getOptions().getString("index-file");
         try {
-            inputs = Maps.newMultiMap();
-            BufferedReader reader = Files.newBufferedReader(path);
-            String line;
-            Pair<String, String> currentKey = null;
-            while ((line = reader.readLine()) != null) {
-                Pair<String, String> key = extractKey(line);
-                if (key != null) {
-                    currentKey = key;
-                } else if (!line.isBlank()) {
-                    inputs.put(currentKey, line);
-                }
-            }
+            inputs = ResultIndex.open(Path.of(input),
+                    indexFile != null ? Path.of(indexFile) : null);
         } catch (IOException e) {
             throw new RuntimeException("Failed to read input file", e);
         }
     }
 
-    private static Pair<String, String> extractKey(String line) {
+    static Pair<String, String> extractKey(String line) {
         if (line.startsWith("----------") && line.endsWith("----------")) {
             int ms = line.indexOf('<'); // method start
             int me = line.indexOf("> "); // method end
@@ -153,7 +237,12 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
+        processResults(getIntraMethods(), analyses,
+                (m, id) -> m.getIR().getResult(id));
+    }
+
+    private static Stream<JMethod> getIntraMethods() {
+        return World.get()
                 .getClassHierarchy()
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
@@ -161,7 +250,79 @@ public class ResultProcessor extends ProgramAnalysis {
                 .filter(m -> !m.isAbstract() && !m.isNative())
                 .sorted(Comparator.comparing(m ->
                         m.getIR().getStmt(0).getLineNumber()));
-        processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
+    }
+
+    /**
+     * Emits the solver metrics of given intra-procedural analyses in the
+     * format specified by option "metrics" (csv or json), in descending
+     * order of wall time, so that the most expensive methods come first.
+     */
+    private void dumpSolverMetrics(List<String> analyses) {
+        String format = getOptions().getString("metrics");
+        if (format == null) {
+            return;
+        }
+        List<Pair<String, SolverMetrics>> metrics = new ArrayList<>();
+        getIntraMethods().forEach(m -> analyses.forEach(id -> {
+            SolverMetrics sm = m.getIR().getResult(SolverMetrics.getResultKey(id));
+            if (sm != null) {
+                metrics.add(new Pair<>(id, sm));
+            }
+        }));
+        metrics.sort(Comparator.comparingLong(
+                (Pair<String, SolverMetrics> p) -> p.second().getWallTime())
+                .reversed());
+        String file = getOptions().getString("metrics-file");
+        PrintStream ps;
+        try {
+            ps = file != null ? new PrintStream(file) : System.out;
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("Failed to open metrics file", e);
+        }
+        switch (format) {
+            case "csv" -> dumpMetricsCSV(ps, metrics);
+            case "json" -> dumpMetricsJSON(ps, metrics);
+            default -> throw new ConfigException("Unknown metrics format: " + format);
+        }
+        if (file != null) {
+            ps.close();
+        }
+    }
+
+    private static void dumpMetricsCSV(
+            PrintStream ps, List<Pair<String, SolverMetrics>> metrics) {
+        ps.println("analysis,method,nodes,node-visits,transfers," +
+                "changing-transfers,worklist-high-water,wall-time-ns");
+        metrics.forEach(p -> {
+            SolverMetrics m = p.second();
+            ps.printf("%s,\"%s\",%d,%d,%d,%d,%d,%d%n", p.first(),
+                    m.getMethod().toString().replace("\"", "\"\""),
+                    m.getNodes(), m.getNodeVisits(), m.getTransfers(),
+                    m.getChangingTransfers(), m.getWorkListHighWater(),
+                    m.getWallTime());
+        });
+    }
+
+    private static void dumpMetricsJSON(
+            PrintStream ps, List<Pair<String, SolverMetrics>> metrics) {
+        ps.println("[");
+        for (int i = 0; i < metrics.size(); ++i) {
+            SolverMetrics m = metrics.get(i).second();
+            ps.printf("  {\"analysis\": \"%s\", \"method\": \"%s\", " +
+                            "\"nodes\": %d, \"nodeVisits\": %d, \"transfers\": %d, " +
+                            "\"changingTransfers\": %d, \"workListHighWater\": %d, " +
+                            "\"wallTimeNs\": %d}%s%n",
+                    escapeJSON(metrics.get(i).first()),
+                    escapeJSON(m.getMethod().toString()),
+                    m.getNodes(), m.getNodeVisits(), m.getTransfers(),
+                    m.getChangingTransfers(), m.getWorkListHighWater(),
+                    m.getWallTime(), i + 1 < metrics.size() ? "," : "");
+        }
+        ps.println("]");
+    }
+
+    private static String escapeJSON(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
     }
 
     private void processResults(Stream<JMethod> methods, List<String> analyses,
@@ -178,17 +339,80 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private void dumpResult(JMethod method, String id,
                             BiFunction<JMethod, String, ?> resultGetter) {
-        out.printf("-------------------- %s (%s) --------------------%n", method, id);
-        Object result = resultGetter.apply(method, id);
-        if (result instanceof Set) {
-            ((Set<?>) result).forEach(e -> out.println(toString(e)));
-        } else if (result instanceof StmtResult<?> StmtResult) {
-            IR ir = method.getIR();
-            ir.forEach(stmt -> out.println(toString(stmt, StmtResult)));
-        } else {
-            out.println(toString(result));
+        if (binaryOut != null) {
+            dumpBinaryResult(method, id, resultGetter.apply(method, id));
+            return;
+        }
+        try {
+            out.write(String.format(
+                    "-------------------- %s (%s) --------------------",
+                    method, id));
+            newLine();
+            Object result = resultGetter.apply(method, id);
+            if (result instanceof Set) {
+                for (Object e : (Set<?>) result) {
+                    out.write(toString(e));
+                    newLine();
+                }
+            } else if (result instanceof StmtResult<?> stmtResult) {
+                IR ir = method.getIR();
+                FactFormatter formatter = new FactFormatter(ir);
+                StringBuilder buffer = new StringBuilder();
+                for (Stmt stmt : ir) {
+                    buffer.setLength(0);
+                    formatter.append(buffer, stmt, stmtResult);
+                    out.append(buffer);
+                    newLine();
+                }
+            } else {
+                out.write(toString(result));
+                newLine();
+            }
+            newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dumpBinaryResult(JMethod method, String id, Object result) {
+        if (!(result instanceof NodeResult<?, ?>)) {
+            if (nonBinaryAnalyses.add(id)) {
+                logger.warn("Cannot dump results of analysis {} in binary," +
+                        " which are not data-flow results", id);
+            }
+            return;
+        }
+        NodeResult<Stmt, Object> nodeResult = (NodeResult<Stmt, Object>) result;
+        IR ir = method.getIR();
+        FactCodec<?> codec = null;
+        for (Stmt stmt : ir) {
+            Object fact = nodeResult.getOutFact(stmt);
+            if (fact instanceof SetFact<?>) {
+                codec = FactCodec.VAR_SET;
+            } else if (fact instanceof CPFact) {
+                codec = CPFactCodec.INSTANCE;
+            }
+            if (fact != null) {
+                break;
+            }
+        }
+        if (codec == null) {
+            if (!ir.getStmts().isEmpty() && nonBinaryAnalyses.add(id)) {
+                logger.warn("Cannot dump results of analysis {} in binary," +
+                        " whose facts are not supported", id);
+            }
+            return;
         }
-        out.println();
+        try {
+            binaryOut.write(ir, id, nodeResult, (FactCodec<Object>) codec);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void newLine() throws IOException {
+        out.write(System.lineSeparator());
     }
 
     /**
@@ -204,17 +428,99 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     /**
-     * Converts a stmt and its analysis result to the corresponding
-     * string representation.
+     * Converts the stmts of a method and their analysis results to string
+     * representations. The output is the same as {@link #toString(Object)},
+     * except that the keys of {@link MapFact}s are sorted only once per
+     * method, instead of once per fact as {@link MapFact#toString()} does.
      */
-    private static String toString(Stmt stmt, StmtResult<?> result) {
-        return toString(stmt) + " " + toString(result.getResult(stmt));
+    private static class FactFormatter {
+
+        /**
+         * Variables of the method, sorted by their string representations.
+         */
+        private final Object[] sortedVars;
+
+        private FactFormatter(IR ir) {
+            sortedVars = ir.getVars()
+                    .stream()
+                    .sorted(Comparator.comparing(Object::toString))
+                    .toArray();
+        }
+
+        private String toString(Stmt stmt, StmtResult<?> result) {
+            StringBuilder buffer = new StringBuilder();
+            append(buffer, stmt, result);
+            return buffer.toString();
+        }
+
+        private void append(StringBuilder buffer, Stmt stmt, StmtResult<?> result) {
+            buffer.append(ResultProcessor.toString(stmt)).append(' ');
+            Object fact = result.getResult(stmt);
+            if (!(fact instanceof MapFact<?, ?> mapFact) ||
+                    !appendMapFact(buffer, mapFact)) {
+                buffer.append(ResultProcessor.toString(fact));
+            }
+        }
+
+        /**
+         * Appends a map fact to the buffer in the order of sorted variables.
+         *
+         * @return false if the fact contains keys which are not variables
+         * of the method, in which case the buffer is left unchanged.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean appendMapFact(StringBuilder buffer, MapFact<?, ?> mapFact) {
+            MapFact<Object, ?> fact = (MapFact<Object, ?>) mapFact;
+            Set<Object> keys = fact.keySet();
+            int start = buffer.length();
+            int count = 0;
+            buffer.append('{');
+            for (Object var : sortedVars) {
+                if (keys.contains(var)) {
+                    if (count++ > 0) {
+                        buffer.append(", ");
+                    }
+                    buffer.append(var).append('=').append(fact.get(var));
+                }
+            }
+            buffer.append('}');
+            if (count != keys.size()) {
+                buffer.setLength(start);
+                return false;
+            }
+            return true;
+        }
     }
 
     private void compareResult(JMethod method, String id,
                                BiFunction<JMethod, String, ?> resultGetter) {
-        Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
+        ResultIndex.Section section = inputs.getSection(method.toString(), id);
         Object result = resultGetter.apply(method, id);
+        if (result instanceof StmtResult<?> StmtResult) {
+            if (section == null) {
+                return;
+            }
+            IR ir = method.getIR();
+            FactFormatter formatter = new FactFormatter(ir);
+            ir.forEach(stmt -> {
+                String stmtStr = toString(stmt);
+                String given = formatter.toString(stmt, StmtResult);
+                // the results of stmts are dumped in the order of their
+                // indexes, so the expected result is usually at the same
+                // index, otherwise we fall back to search the whole section
+                String line = section.getLine(stmt.getIndex());
+                if (line != null && line.startsWith(stmtStr)) {
+                    compareStmtResult(method, stmtStr, line, given);
+                } else {
+                    for (String l : section.getLines()) {
+                        compareStmtResult(method, stmtStr, l, given);
+                    }
+                }
+            });
+            return;
+        }
+        Set<String> inputResult = section == null ? Set.of() :
+                new LinkedHashSet<>(section.getLines());
         if (result instanceof Set) {
             Set<String> given = ((Set<?>) result)
                     .stream()
@@ -232,21 +538,6 @@ public class ResultProcessor extends ProgramAnalysis {
                             " should be included");
                 }
             });
-        } else if (result instanceof StmtResult<?> StmtResult) {
-            Set<String> lines = inputs.get(new Pair<>(method.toString(), id));
-            IR ir = method.getIR();
-            ir.forEach(stmt -> {
-                String stmtStr = toString(stmt);
-                String given = toString(stmt, StmtResult);
-                for (String line : lines) {
-                    if (line.startsWith(stmtStr) && !line.equals(given)) {
-                        int idx = stmtStr.length();
-                        mismatches.add(String.format("%s %s expected: %s, given: %s",
-                                method, stmtStr, line.substring(idx + 1),
-                                given.substring(idx + 1)));
-                    }
-                }
-            });
         } else if (inputResult.size() == 1) {
             if (!toString(result).equals(getOne(inputResult))) {
                 mismatches.add(String.format("%s expected: %s, given: %s",
@@ -258,4 +549,14 @@ public class ResultProcessor extends ProgramAnalysis {
                     id, method, inputResult, result);
         }
     }
+
+    private void compareStmtResult(JMethod method, String stmtStr,
+                                   String line, String given) {
+        if (line.startsWith(stmtStr) && !line.equals(given)) {
+            int idx = stmtStr.length();
+            mismatches.add(String.format("%s %s expected: %s, given: %s",
+                    method, stmtStr, line.substring(idx + 1),
+                    given.substring(idx + 1)));
+        }
+    }
 }
@@ -23,29 +23,99 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.fact.CompactDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 
+import javax.annotation.Nullable;
+import java.util.function.UnaryOperator;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
     private final Solver<Node, Fact> solver;
 
+    /**
+     * Kind of the solver, see {@link Solver#makeSolver(DataflowAnalysis, String)}.
+     */
+    private final String solverKind;
+
+    /**
+     * Whether to solve the analysis on basic blocks.
+     */
+    private final boolean basicBlock;
+
+    /**
+     * Whether to keep only the facts at basic block boundaries in the result.
+     */
+    private final boolean compactResult;
+
+    /**
+     * Creates the immutable facts to hash-cons the facts of full
+     * (non-compact) results, or null if hash-consing is disabled.
+     */
+    @Nullable
+    private final UnaryOperator<Fact> immutableFactMaker;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solverKind = getOptions().getString("solver");
+        solver = Solver.makeSolver(this, solverKind);
+        basicBlock = getOptions().getBooleanOrDefault("basic-block", false);
+        compactResult = getOptions().getBooleanOrDefault("compact-result", false);
+        if (getOptions().getBooleanOrDefault("hash-cons", false)) {
+            if (compactResult || basicBlock) {
+                // compact results keep few facts, which are not hash-consed
+                throw new ConfigException(getId() + ": hash-cons cannot be" +
+                        " combined with compact-result or basic-block");
+            }
+            immutableFactMaker = getImmutableFactMaker();
+            if (immutableFactMaker == null) {
+                throw new ConfigException(getId() + " does not support hash-cons");
+            }
+        } else {
+            immutableFactMaker = null;
+        }
     }
 
+    /**
+     * Solves this analysis on the CFG of given IR. The metrics of the
+     * solver are stored in the IR with key
+     * {@link SolverMetrics#getResultKey(String)}.
+     */
     @Override
-    public DataflowResult<Node, Fact> analyze(IR ir) {
+    public NodeResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        SolverMetrics metrics = new SolverMetrics();
+        ir.storeResult(SolverMetrics.getResultKey(getId()), metrics);
+        if (basicBlock) {
+            // block-level results are always compact
+            BlockCFG<Node> blockCFG = new BlockCFG<>(cfg, this::needTransferEdge);
+            // the block analysis keeps the facts inside blocks of the CFG
+            Solver<BasicBlock<Node>, Fact> blockSolver = Solver.makeSolver(
+                    new BlockDataflowAnalysis<>(this), solverKind);
+            return new CompactDataflowResult<>(this, blockCFG,
+                    blockSolver.solve(blockCFG, metrics));
+        }
+        DataflowResult<Node, Fact> result = solver.solve(cfg, metrics);
+        if (compactResult) {
+            return new CompactDataflowResult<>(this, cfg, result);
+        }
+        if (immutableFactMaker != null) {
+            result.hashCons(immutableFactMaker);
+        }
+        return result;
     }
 
     /**
@@ -0,0 +1,184 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lifts a node-level data-flow analysis to the {@link BlockCFG} of its
+ * CFG, so that a solver transfers a whole basic block in one step.
+ * The transfer function of a block is the composition of the transfer
+ * functions of its nodes.
+ * <p>
+ * The facts between the nodes of each block are kept across the visits
+ * of the block, just like the solvers keep the facts of nodes, so that
+ * transferring a block does not allocate new facts. Thus, an instance
+ * of this class should only be used for solving one CFG.
+ *
+ * @param <Node> type of the nodes in basic blocks
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockDataflowAnalysis<Node, Fact>
+        implements DataflowAnalysis<BasicBlock<Node>, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    /**
+     * Facts between the nodes of each block. The fact at position i is
+     * the OUT (IN) fact of the i-th (i+1-th) node of the block for forward
+     * (backward) analysis.
+     */
+    private final Map<BasicBlock<Node>, Fact[]> innerFacts = Maps.newMap();
+
+    public BlockDataflowAnalysis(DataflowAnalysis<Node, Fact> analysis) {
+        this.analysis = analysis;
+    }
+
+    @Override
+    public boolean isForward() {
+        return analysis.isForward();
+    }
+
+    @Override
+    public Fact newBoundaryFact(CFG<BasicBlock<Node>> cfg) {
+        return analysis.newBoundaryFact(getBaseCFG(cfg));
+    }
+
+    @Override
+    public Fact newInitialFact() {
+        return analysis.newInitialFact();
+    }
+
+    @Override
+    public Fact newInitialFact(CFG<BasicBlock<Node>> cfg) {
+        return analysis.newInitialFact(getBaseCFG(cfg));
+    }
+
+    private CFG<Node> getBaseCFG(CFG<BasicBlock<Node>> cfg) {
+        return ((BlockCFG<Node>) cfg).getBaseCFG();
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean isInPlace() {
+        return analysis.isInPlace();
+    }
+
+    @Override
+    public boolean meetIntoInPlace(Fact fact, Fact target) {
+        return analysis.meetIntoInPlace(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(BasicBlock<Node> block, Fact in, Fact out) {
+        return analysis.isForward() ?
+                transferForward(block, in, out, null) :
+                transferBackward(block, in, out, null);
+    }
+
+    @Override
+    public boolean transferNode(BasicBlock<Node> block, Fact in, Fact out,
+                                Fact scratch) {
+        return analysis.isForward() ?
+                transferForward(block, in, out, scratch) :
+                transferBackward(block, in, out, scratch);
+    }
+
+    /**
+     * Transfers IN fact of the block through its nodes, and the transfer
+     * of the last node updates OUT fact of the block.
+     *
+     * @return true if OUT fact of the block changed, otherwise false.
+     */
+    private boolean transferForward(BasicBlock<Node> block, Fact in, Fact out,
+                                    Fact scratch) {
+        List<Node> nodes = block.getNodes();
+        Fact fact = in;
+        if (nodes.size() > 1) {
+            Fact[] inner = getInnerFacts(block);
+            for (int i = 0; i < nodes.size() - 1; ++i) {
+                transfer(nodes.get(i), fact, inner[i], scratch);
+                fact = inner[i];
+            }
+        }
+        return transfer(block.getLastNode(), fact, out, scratch);
+    }
+
+    /**
+     * Transfers OUT fact of the block through its nodes in reverse order,
+     * and the transfer of the first node updates IN fact of the block.
+     *
+     * @return true if IN fact of the block changed, otherwise false.
+     */
+    private boolean transferBackward(BasicBlock<Node> block, Fact in, Fact out,
+                                     Fact scratch) {
+        List<Node> nodes = block.getNodes();
+        Fact fact = out;
+        if (nodes.size() > 1) {
+            Fact[] inner = getInnerFacts(block);
+            for (int i = nodes.size() - 1; i > 0; --i) {
+                transfer(nodes.get(i), inner[i - 1], fact, scratch);
+                fact = inner[i - 1];
+            }
+        }
+        return transfer(block.getFirstNode(), in, fact, scratch);
+    }
+
+    private Fact[] getInnerFacts(BasicBlock<Node> block) {
+        return innerFacts.computeIfAbsent(block, b -> {
+            @SuppressWarnings("unchecked")
+            Fact[] facts = (Fact[]) new Object[b.size() - 1];
+            for (int i = 0; i < facts.length; ++i) {
+                facts[i] = analysis.newInitialFact(b.getCFG());
+            }
+            return facts;
+        });
+    }
+
+    private boolean transfer(Node node, Fact in, Fact out, Fact scratch) {
+        return scratch != null ?
+                analysis.transferNode(node, in, out, scratch) :
+                analysis.transferNode(node, in, out);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<BasicBlock<Node>> edge) {
+        return analysis.needTransferEdge(BlockCFG.getBaseEdge(edge));
+    }
+
+    @Override
+    public Fact transferEdge(Edge<BasicBlock<Node>> edge, Fact nodeFact) {
+        return analysis.transferEdge(BlockCFG.getBaseEdge(edge), nodeFact);
+    }
+}
@@ -22,9 +22,13 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.FactCodec;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.Edge;
 
+import javax.annotation.Nullable;
+import java.util.function.UnaryOperator;
+
 /**
  * Template interface for defining data-flow analysis.
  *
@@ -49,6 +53,16 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * Analyses whose facts depend on the method being analyzed (e.g.,
+     * facts indexed by the variables of the method) can override this
+     * method; by default, it is the same as {@link #newInitialFact()}.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -64,6 +78,93 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     boolean transferNode(Node node, Fact in, Fact out);
 
+    /**
+     * An analysis may opt in to in-place solving. In that case, the solver
+     * keeps a single IN fact and a single OUT fact for each node during
+     * the whole solving, meets facts into them by
+     * {@link #meetIntoInPlace(Object, Object)}, and transfers them by
+     * {@link #transferNode(Object, Object, Object, Object)}, so that
+     * it does not need to allocate new facts when visiting nodes.
+     *
+     * @return true if this analysis supports in-place solving, otherwise false.
+     */
+    default boolean isInPlace() {
+        return false;
+    }
+
+    /**
+     * Meets a fact into another (target) fact, as {@link #meetInto(Object, Object)}.
+     * This method is used by in-place solving, where the target fact already
+     * holds the result of previous meets, thus it must be monotone.
+     *
+     * @return true if the target fact changed as a result of the call, otherwise false.
+     */
+    default boolean meetIntoInPlace(Fact fact, Fact target) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Node Transfer function for in-place solving.
+     * The scratch fact is owned by the solver and is shared by all nodes,
+     * the transfer function can use it as temporary storage instead of
+     * allocating new facts. Its content is unspecified when passed in.
+     *
+     * @return true if the transfer changed the out (in) fact, otherwise false.
+     */
+    default boolean transferNode(Node node, Fact in, Fact out, Fact scratch) {
+        return transferNode(node, in, out);
+    }
+
+    /**
+     * An analysis over a lattice of infinite height may opt in to widening,
+     * so that solving terminates. In that case, solvers which support
+     * widening apply {@link #widen(Object, Object)} at the nodes which
+     * cut all cycles of the CFG.
+     *
+     * @return true if this analysis needs widening, otherwise false.
+     */
+    default boolean needWidening() {
+        return false;
+    }
+
+    /**
+     * Widening operator for the analysis. By default, it returns the new
+     * fact, which suffices for the lattices of finite height.
+     *
+     * @param previous the previous fact of a node
+     * @param next     the new fact of the node, which is the meet of the
+     *                 facts flowing into the node
+     * @return a fact that is not lower than both given facts, which
+     * ensures that repeated widening is stable in finitely many steps.
+     */
+    default Fact widen(Fact previous, Fact next) {
+        return next;
+    }
+
+    /**
+     * @return the function which creates an immutable fact equal to given
+     * fact, or null if this analysis does not support hash-consing.
+     * It is used to hash-cons the facts of the analysis result.
+     *
+     * @see pascal.taie.analysis.dataflow.fact.DataflowResult#hashCons(UnaryOperator)
+     */
+    @Nullable
+    default UnaryOperator<Fact> getImmutableFactMaker() {
+        return null;
+    }
+
+    /**
+     * @return the codec of the facts of this analysis, which is used to
+     * serialize the analysis results, or null if this analysis does not
+     * support serialization.
+     *
+     * @see pascal.taie.analysis.dataflow.fact.DataflowResultWriter
+     */
+    @Nullable
+    default FactCodec<Fact> getFactCodec() {
+        return null;
+    }
+
     /**
      * @return true if this analysis needs to perform transfer for given edge, otherwise false.
      */
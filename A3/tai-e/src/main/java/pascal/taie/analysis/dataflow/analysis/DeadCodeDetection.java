@@ -26,7 +26,7 @@ import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
@@ -35,11 +35,13 @@ import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
-import pascal.taie.util.collection.Pair;
 
-import java.util.Comparator;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.TreeSet;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
@@ -54,99 +56,85 @@ public class DeadCodeDetection extends MethodAnalysis {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
         // obtain result of constant propagation
-        DataflowResult<Stmt, CPFact> constants =
+        NodeResult<Stmt, CPFact> constants =
                 ir.getResult(ConstantPropagation.ID);
         // obtain result of live variable analysis
-        DataflowResult<Stmt, SetFact<Var>> liveVars =
+        NodeResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
-        // keep statements (dead code) sorted in the resulting set
-        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
         // TODO - finish me
         // Your task is to recognize dead code in ir and add it to deadCode
-        Set<Stmt> peekedCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        DFS(peekedCode, cfg, cfg.getEntry(), constants);
-        peekedCode.add(cfg.getExit());
-        
-        peekedCode.removeIf(stmt -> {
-            if (!stmt.getUses().stream().allMatch(DeadCodeDetection::hasNoSideEffect)) 
-                return false;
-            if (stmt.getDef().isPresent()) {
-                LValue lValue = stmt.getDef().get();
-                if (lValue instanceof Var var) {
-                    var dead = !liveVars.getOutFact(stmt).contains(var);
-                    System.out.println("Dead Assign Check " + 
-                            (dead ? "<T>" : "<F>") + stmt);
-                    return dead;
-                }
+        // The stmts in IR are indexed from 0 to n - 1, and the entry and
+        // exit of CFG are indexed by n and n + 1, so the nodes of CFG
+        // are represented by bits of their indexes.
+        List<Stmt> stmts = ir.getStmts();
+        int n = stmts.size();
+        // nodes reachable from the entry
+        BitSet reached = new BitSet(n + 2);
+        // reachable nodes which are not dead assignments
+        BitSet live = new BitSet(n + 2);
+        Stmt[] stack = new Stmt[n + 2];
+        int top = 0;
+        stack[top++] = cfg.getEntry();
+        reached.set(cfg.getEntry().getIndex());
+        live.set(cfg.getExit().getIndex());
+        while (top > 0) {
+            Stmt current = stack[--top];
+            if (!isDeadAssignment(current, liveVars)) {
+                live.set(current.getIndex());
             }
-            return false;
-        });
-        
-        cfg.getNodes().stream()
-                .filter(o -> !peekedCode.contains(o))
-                .forEach(deadCode::add);
-        return deadCode;
-    }
-    
-    public static String GetId(Stmt stmt) {
-        return "[" + stmt.getIndex() + "@L" + stmt.getLineNumber() + "]";     
-    }
-    
-    public void DFS(Set<Stmt> peeked, CFG<Stmt> cfg, Stmt current, 
-                    DataflowResult<Stmt, CPFact> constants) {
-        peeked.add(current);
-        for (Edge<Stmt> edge : cfg.getOutEdgesOf(current)) {
-            Stmt target = edge.getTarget();
-            if (peeked.contains(target))
-                continue;
             // 检查语句是否为条件语句，
             // 如果语句是条件语句，
             //   检查条件检查的变量是否为常量，
             //     如果是，选择固定的方向走，不能走的方向直接跳过
             //     如果不是，照常遍历
-            // TODO 检查 Exception?
-            if (current instanceof JumpStmt) {
-                // 检查 inFact 是否没被赋值
-                CPFact inFact = constants.getInFact(current);
-                
-                if (current instanceof If ifStmt) {
-                    ConditionExp condition = ifStmt.getCondition();
-                    Value evaluate = ConstantPropagation.evaluate(condition, inFact);
-                    if (evaluate.isConstant()) {
-                        var isTrue = evaluate.getConstant() == 1;
-                        System.out.println("If statement " + GetId(ifStmt) + ifStmt + 
-                                (isTrue ? "<T>" : "<F>"));
-                        // Question: 如果当前分支的跳转本身就是不需要的代码，那么也得把自己移除
-                        // 比如 if 1 < 2 : goto 3，这句话本身也是没用的 dead code
-                        if (isTrue && edge.getKind() != Edge.Kind.IF_TRUE)
-                            continue;
-                        if (!isTrue && edge.getKind() != Edge.Kind.IF_FALSE) {
-//                            peeked.remove(current);
-                            continue;
-                        }
-                    }
-                } else if (current instanceof SwitchStmt switchStmt) {
-                    Var var = switchStmt.getVar();
-                    Value value = inFact.get(var);
-                    if (value.isConstant()) {
-                        int constant = value.getConstant();
-                        var targetStmt = switchStmt.getCaseTargets().stream()
-                                .filter(kv -> kv.first() == constant).findFirst()
-                                .orElse(new Pair<>(0, switchStmt.getDefaultTarget()))
-                                .second();
-                        System.out.println("Switch statement " +
-                                GetId(switchStmt)
-                                + constant);
-                        if (targetStmt != target) {
-                            System.out.println("Ignored");
-                            continue;
-                        }
-                    }
+            // 条件只需对每个条件语句求值一次
+            Value condition = null;
+            if (current instanceof If || current instanceof SwitchStmt) {
+                condition = ConstantPropagation.evaluateCondition(
+                        current, constants.getInFact(current));
+                if (!condition.isConstant()) {
+                    condition = null;
+                }
+            }
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(current)) {
+                Stmt target = edge.getTarget();
+                if (reached.get(target.getIndex()) ||
+                        (condition != null && !ConstantPropagation.isTaken(
+                                edge, condition.getConstant()))) {
+                    continue;
                 }
+                reached.set(target.getIndex());
+                stack[top++] = target;
+            }
+        }
+        // keep statements (dead code) sorted in the resulting set
+        Stmt[] deadCode = new Stmt[n - live.get(0, n).cardinality()];
+        int size = 0;
+        for (int i = live.nextClearBit(0); i < n; i = live.nextClearBit(i + 1)) {
+            deadCode[size++] = stmts.get(i);
+        }
+        return new SortedStmtSet(deadCode);
+    }
+
+    public static String GetId(Stmt stmt) {
+        return "[" + stmt.getIndex() + "@L" + stmt.getLineNumber() + "]";
+    }
+
+    /**
+     * @return true if given stmt assigns a variable which is not live
+     * after the stmt, and the assignment has no side effect.
+     */
+    private static boolean isDeadAssignment(
+            Stmt stmt, NodeResult<Stmt, SetFact<Var>> liveVars) {
+        if (!(stmt.getDef().orElse(null) instanceof Var var)) {
+            return false;
+        }
+        for (RValue use : stmt.getUses()) {
+            if (!hasNoSideEffect(use)) {
+                return false;
             }
-            
-            DFS(peeked, cfg, target, constants);
         }
+        return !liveVars.getOutFact(stmt).contains(var);
     }
 
     /**
@@ -171,4 +159,63 @@ public class DeadCodeDetection extends MethodAnalysis {
         }
         return true;
     }
+
+    /**
+     * Immutable set of stmts backed by an array sorted by stmt indexes.
+     */
+    private static class SortedStmtSet extends AbstractSet<Stmt> {
+
+        private final Stmt[] stmts;
+
+        private SortedStmtSet(Stmt[] stmts) {
+            this.stmts = stmts;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Stmt stmt)) {
+                return false;
+            }
+            int index = stmt.getIndex();
+            int low = 0, high = stmts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midIndex = stmts[mid].getIndex();
+                if (midIndex < index) {
+                    low = mid + 1;
+                } else if (midIndex > index) {
+                    high = mid - 1;
+                } else {
+                    return stmts[mid] == stmt;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<Stmt> iterator() {
+            return new Iterator<>() {
+
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < stmts.length;
+                }
+
+                @Override
+                public Stmt next() {
+                    if (next >= stmts.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return stmts[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return stmts.length;
+        }
+    }
 }
@@ -22,13 +22,19 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.ImmutableSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
-import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.UseDefTable;
+import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
+import java.util.function.UnaryOperator;
+
 /**
  * Implementation of classic live variable analysis.
  */
@@ -49,7 +55,7 @@ public class LiveVariableAnalysis extends
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<>();
+        return new LiveVarFact(UseDefTable.of(cfg.getIR()));
     }
 
     @Override
@@ -58,42 +64,115 @@ public class LiveVariableAnalysis extends
         return new SetFact<>();
     }
 
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        // live variables of a method are represented as bit vectors
+        // indexed by the variables of the method
+        return new LiveVarFact(UseDefTable.of(cfg.getIR()));
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         // TODO - finish me
         target.union(fact);
     }
 
+    @Override
+    public boolean isInPlace() {
+        return true;
+    }
+
+    @Override
+    public boolean meetIntoInPlace(SetFact<Var> fact, SetFact<Var> target) {
+        return target.union(fact);
+    }
+
+    @Override
+    public UnaryOperator<SetFact<Var>> getImmutableFactMaker() {
+        return ImmutableSetFact::new;
+    }
+
+    @Override
+    public FactCodec<SetFact<Var>> getFactCodec() {
+        return FactCodec.VAR_SET;
+    }
+
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
         // TODO - finish me
-        // use U (out - def)
-        String log = "";
-        log += "TRANSFER: " + stmt + "\n";
-
-        SetFact<Var> varSetFact = new SetFact<>();
-        var uses = stmt.getUses().stream()
-                .filter(use -> use instanceof Var).toList();
-        uses.forEach(use -> varSetFact.add((Var)use));
-
-        var old_union = in.copy();
-
-        in.union(out);
-        if (stmt.getDef().isPresent()) {
-            LValue lValue = stmt.getDef().get();
-            if (lValue instanceof Var) {
-                // 之前使用了 out.remove，导致对 out 本身的修改，直接导致结果的错误，查了很久
-                // 原因是陷入了 IN = use U (out - def) 的运算顺序的临近误区
-                // 最后改成了 in = in U out, in = in - def, in = in U use 的执行顺序
-                in.remove(((Var) lValue));
-                log += "\tremove: " + lValue + ";";
+        return transfer(stmt, in, out.copy());
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out,
+                                SetFact<Var> scratch) {
+        scratch.set(out);
+        return transfer(stmt, in, scratch);
+    }
+
+    /**
+     * Computes IN = use U (OUT - def) of given stmt.
+     *
+     * @param newIn a fact holding the content of OUT, which is modified
+     *              into the new IN fact
+     * @return true if IN changed, otherwise false.
+     */
+    private boolean transfer(Stmt stmt, SetFact<Var> in, SetFact<Var> newIn) {
+        // 之前使用了 out.remove，导致对 out 本身的修改，直接导致结果的错误，查了很久
+        // 原因是陷入了 IN = use U (out - def) 的运算顺序的临近误区
+        // 现在先把 out 拷贝一份，再在拷贝上执行 - def 和 U use
+        UseDefTable table = in instanceof LiveVarFact fact ? fact.table :
+                newIn instanceof LiveVarFact fact ? fact.table : null;
+        if (table != null && table.contains(stmt)) {
+            int def = table.getDef(stmt);
+            if (def >= 0) {
+                newIn.remove(table.getVar(def));
+            }
+            for (int use : table.getUses(stmt)) {
+                newIn.add(table.getVar(use));
+            }
+        } else {
+            // the facts are not created for a CFG, or the stmt is not
+            // in the IR, e.g., the entry and exit of the CFG
+            if (stmt.getDef().isPresent()
+                    && stmt.getDef().get() instanceof Var def) {
+                newIn.remove(def);
+            }
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var) {
+                    newIn.add(var);
+                }
             }
         }
+        if (in.equals(newIn)) {
+            return false;
+        }
+        in.set(newIn);
+        return true;
+    }
+
+    /**
+     * Bit-vector fact of live variables which also carries the use-def
+     * table of its IR, so that the transfer function can query the table
+     * of the IR without looking it up.
+     */
+    private static class LiveVarFact extends BitSetFact<Var> {
+
+        private final UseDefTable table;
 
-        in.union(varSetFact);
+        private LiveVarFact(UseDefTable table) {
+            super(table.getIR().getVars());
+            this.table = table;
+        }
+
+        private LiveVarFact(LiveVarFact fact) {
+            super(fact);
+            this.table = fact.table;
+        }
 
-        log += "\tuses: " + uses + "\tresults: " + in;
-//        System.out.println(log);
-        return !in.equals(old_union);
+        @Override
+        public LiveVarFact copy() {
+            return new LiveVarFact(this);
+        }
     }
 }
@@ -0,0 +1,215 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Combines several data-flow analyses of the same direction into one
+ * analysis, whose facts are the products of the facts of the component
+ * analyses. Solving the product analysis solves all component analyses
+ * in one pass over the CFG, i.e., the solver computes the node ordering,
+ * maintains the work list and visits each node once for all components.
+ * <p>
+ * The result of each component analysis can be obtained from the result
+ * of the product analysis by {@link #project(NodeResult, int)}.
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class ProductAnalysis<Node> implements DataflowAnalysis<Node, ProductFact> {
+
+    private final List<DataflowAnalysis<Node, Object>> analyses;
+
+    private final boolean isForward;
+
+    private final boolean isInPlace;
+
+    private final boolean needWidening;
+
+    /**
+     * @param analyses the component analyses, which must have the same direction
+     * @throws IllegalArgumentException if the analyses have different directions
+     */
+    @SuppressWarnings("unchecked")
+    public ProductAnalysis(List<? extends DataflowAnalysis<Node, ?>> analyses) {
+        if (analyses.isEmpty()) {
+            throw new IllegalArgumentException("No analyses to combine");
+        }
+        this.analyses = new ArrayList<>(analyses.size());
+        for (DataflowAnalysis<Node, ?> analysis : analyses) {
+            this.analyses.add((DataflowAnalysis<Node, Object>) analysis);
+        }
+        isForward = analyses.get(0).isForward();
+        if (analyses.stream().anyMatch(a -> a.isForward() != isForward)) {
+            throw new IllegalArgumentException(
+                    "Cannot combine forward and backward analyses: " + analyses);
+        }
+        isInPlace = analyses.stream().allMatch(DataflowAnalysis::isInPlace);
+        needWidening = analyses.stream().anyMatch(DataflowAnalysis::needWidening);
+    }
+
+    /**
+     * @return the number of component analyses.
+     */
+    public int size() {
+        return analyses.size();
+    }
+
+    /**
+     * @return view of the result of the i-th component analysis
+     * in given result of this analysis.
+     */
+    public static <Node, Fact> NodeResult<Node, Fact> project(
+            NodeResult<Node, ProductFact> result, int i) {
+        return new NodeResult<>() {
+
+            @Override
+            public Fact getInFact(Node node) {
+                ProductFact fact = result.getInFact(node);
+                return fact == null ? null : fact.get(i);
+            }
+
+            @Override
+            public Fact getOutFact(Node node) {
+                ProductFact fact = result.getOutFact(node);
+                return fact == null ? null : fact.get(i);
+            }
+        };
+    }
+
+    @Override
+    public boolean isForward() {
+        return isForward;
+    }
+
+    @Override
+    public ProductFact newBoundaryFact(CFG<Node> cfg) {
+        return newProductFact(a -> a.newBoundaryFact(cfg));
+    }
+
+    @Override
+    public ProductFact newInitialFact() {
+        return newProductFact(DataflowAnalysis::newInitialFact);
+    }
+
+    @Override
+    public ProductFact newInitialFact(CFG<Node> cfg) {
+        return newProductFact(a -> a.newInitialFact(cfg));
+    }
+
+    private ProductFact newProductFact(
+            Function<DataflowAnalysis<Node, Object>, Object> factory) {
+        List<Object> facts = new ArrayList<>(analyses.size());
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            facts.add(factory.apply(analysis));
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public void meetInto(ProductFact fact, ProductFact target) {
+        for (int i = 0; i < analyses.size(); ++i) {
+            analyses.get(i).meetInto(fact.get(i), target.get(i));
+        }
+    }
+
+    @Override
+    public boolean transferNode(Node node, ProductFact in, ProductFact out) {
+        boolean changed = false;
+        for (int i = 0; i < analyses.size(); ++i) {
+            changed |= analyses.get(i).transferNode(node, in.get(i), out.get(i));
+        }
+        return changed;
+    }
+
+    /**
+     * The product analysis is solved in place
+     * if all component analyses are solved in place.
+     */
+    @Override
+    public boolean isInPlace() {
+        return isInPlace;
+    }
+
+    @Override
+    public boolean meetIntoInPlace(ProductFact fact, ProductFact target) {
+        boolean changed = false;
+        for (int i = 0; i < analyses.size(); ++i) {
+            changed |= analyses.get(i).meetIntoInPlace(fact.get(i), target.get(i));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean transferNode(Node node, ProductFact in, ProductFact out,
+                                ProductFact scratch) {
+        boolean changed = false;
+        for (int i = 0; i < analyses.size(); ++i) {
+            changed |= analyses.get(i).transferNode(
+                    node, in.get(i), out.get(i), scratch.get(i));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean needWidening() {
+        return needWidening;
+    }
+
+    @Override
+    public ProductFact widen(ProductFact previous, ProductFact next) {
+        List<Object> facts = new ArrayList<>(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            facts.add(analyses.get(i).widen(previous.get(i), next.get(i)));
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            if (analysis.needTransferEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ProductFact transferEdge(Edge<Node> edge, ProductFact nodeFact) {
+        List<Object> facts = new ArrayList<>(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            DataflowAnalysis<Node, Object> analysis = analyses.get(i);
+            facts.add(analysis.needTransferEdge(edge) ?
+                    analysis.transferEdge(edge, nodeFact.get(i)) : nodeFact.get(i));
+        }
+        return new ProductFact(facts);
+    }
+}
@@ -48,6 +48,15 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Constructs a CPFact which is directly backed by given map.
+     *
+     * @see MapFact#MapFact(Map, boolean)
+     */
+    protected CPFact(Map<Var, Value> map, boolean copy) {
+        super(map, copy);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -73,4 +82,29 @@ public class CPFact extends MapFact<Var, Value> {
     public CPFact copy() {
         return new CPFact(this.map);
     }
+
+    /**
+     * Compares the mappings of two CPFacts, regardless of the maps
+     * that represent them.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CPFact that && map.equals(that.map);
+    }
+
+    /**
+     * Computes hash code from the mappings, as the maps that represent
+     * CPFacts may compute hash codes of their entries differently.
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (Map.Entry<Var, Value> entry : map.entrySet()) {
+            hashCode += entry.getKey().hashCode() ^ entry.getValue().hashCode();
+        }
+        return hashCode;
+    }
 }
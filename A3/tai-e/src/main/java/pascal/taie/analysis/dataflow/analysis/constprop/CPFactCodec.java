@@ -0,0 +1,79 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.ir.exp.Var;
+
+import java.util.List;
+
+/**
+ * Codec of {@link CPFact}s. UNDEF is encoded as 0 (i.e., absent),
+ * NAC as 1, and constant c as {@code 2 + zigzag(c)}, so that small
+ * constants are encoded as small values.
+ */
+public final class CPFactCodec implements FactCodec<CPFact> {
+
+    public static final CPFactCodec INSTANCE = new CPFactCodec();
+
+    private static final long NAC = 1;
+
+    private CPFactCodec() {
+    }
+
+    @Override
+    public void encode(CPFact fact, long[] values) {
+        fact.forEach((var, value) -> values[var.getIndex()] = encode(value));
+    }
+
+    private static long encode(Value value) {
+        if (value.isConstant()) {
+            int c = value.getConstant();
+            return 2 + (((long) c << 1) ^ (c >> 31));
+        } else if (value.isNAC()) {
+            return NAC;
+        } else {
+            return 0;
+        }
+    }
+
+    @Override
+    public CPFact decode(long[] values, List<Var> vars) {
+        CPFact fact = new CPFact();
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != 0) {
+                fact.update(vars.get(i), decode(values[i]));
+            }
+        }
+        return fact;
+    }
+
+    private static Value decode(long value) {
+        if (value == NAC) {
+            return Value.getNAC();
+        } else {
+            long z = value - 2;
+            return Value.makeConstant((int) ((z >>> 1) ^ -(z & 1)));
+        }
+    }
+}
@@ -23,23 +23,48 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.UseDefTable;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 public class ConstantPropagation extends
         AbstractDataflowAnalysis<Stmt, CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to run the sparse conditional constant propagation
+     * instead of the dense data-flow solver.
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+    }
+
+    @Override
+    public NodeResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return new SparseConstantPropagation(cfg).solve();
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -51,7 +76,7 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
         // 以最 safe 的情况估测传入的参数
-        CPFact cpFact = new CPFact();
+        CPFact cpFact = newInitialFact(cfg);
         List<Var> params = cfg.getIR().getParams();
         params.forEach(v -> cpFact.update(v, Value.getNAC()));
         return cpFact;
@@ -59,15 +84,15 @@ public class ConstantPropagation extends
 
     public CPFact getAllUndefFact(CFG<Stmt> cfg) {
         var fact = new CPFact();
+        UseDefTable table = UseDefTable.of(cfg.getIR());
         // find all variable, set UNDEF for them
         for (var node : cfg) {
-            for (RValue use : node.getUses()) {
-                if (use instanceof Var var) {
-                    fact.update(var, Value.getUndef());
-                }
+            for (int use : table.getUses(node)) {
+                fact.update(table.getVar(use), Value.getUndef());
             }
-            if (node.getDef().isPresent() && node.getDef().get() instanceof Var var) {
-                fact.update(var, Value.getUndef());
+            int def = table.getDef(node);
+            if (def >= 0) {
+                fact.update(table.getVar(def), Value.getUndef());
             }
         }
         return fact;
@@ -79,14 +104,55 @@ public class ConstantPropagation extends
         return new CPFact();
     }
 
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        return new DenseCPFact(cfg.getIR().getVars());
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
-        fact.forEach((var, value) -> {
-            Value formal = target.get(var);
-            var meet = meetValue(value, formal);
-            target.update(var, meet);
-        });
+        meetInto(fact, target, null);
+    }
+
+    @Override
+    public boolean isInPlace() {
+        return true;
+    }
+
+    @Override
+    public boolean meetIntoInPlace(CPFact fact, CPFact target) {
+        return meetInto(fact, target, null);
+    }
+
+    @Override
+    public UnaryOperator<CPFact> getImmutableFactMaker() {
+        return ImmutableCPFact::new;
+    }
+
+    @Override
+    public FactCodec<CPFact> getFactCodec() {
+        return CPFactCodec.INSTANCE;
+    }
+
+    /**
+     * Meets a fact into target fact, except the value of given variable.
+     *
+     * @return true if target fact changed as a result of the call, otherwise false.
+     */
+    private boolean meetInto(CPFact fact, CPFact target, Var except) {
+        if (target instanceof DenseCPFact denseTarget
+                && denseTarget.isCompatible(fact)) {
+            return denseTarget.meet((DenseCPFact) fact, except);
+        }
+        boolean changed = false;
+        for (Var var : fact.keySet()) {
+            if (var != except) {
+                Value meet = meetValue(fact.get(var), target.get(var));
+                changed |= target.update(var, meet);
+            }
+        }
+        return changed;
     }
 
     /**
@@ -94,44 +160,36 @@ public class ConstantPropagation extends
      */
     public Value meetValue(Value value, Value formal) {
         // TODO - finish me
-        if (formal.isUndef()) {
+        // same as PackedValues.meet(), returns the given objects if possible
+        if (formal.isUndef() || value.equals(formal)) {
             return value;
-        } else if (formal.isNAC()) {
-            // keep NAC
+        } else if (value.isUndef()) {
             return formal;
-        } else if (formal.isConstant()) {
-            if (value.isConstant()) {
-                if (value.getConstant() != formal.getConstant()) {
-                    return Value.getNAC();
-                } // else no update
-                else {
-                    return formal;
-                }
-            } else if (value.isNAC()) {
-                return value;
-            }
+        } else {
+            // two different constants, or NAC with anything
+            return Value.getNAC();
         }
-        // no else, cannot reach here
-        throw new UnsupportedOperationException();
-//        return null;
     }
 
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
-        // no change if not new def
-        var oldOut = out.copy();
-        meetInto(in, out);
-        if (stmt instanceof DefinitionStmt<?, ?> defStmt) {
-            RValue rValue = defStmt.getRValue();
-            var lValue = (Var) defStmt.getLValue();
-            if (lValue != null) {
-                var eval = evaluate(rValue, in);
-                if (eval != null)
-                    out.update(lValue, eval);
-            }
+        // OUT = (IN - def) U (def -> eval)
+        // meet 和 update 直接返回 OUT 是否改变，不再需要拷贝 OUT 做比较
+        Var def = null;
+        long eval = PackedValues.UNDEF;
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt
+                && defStmt.getLValue() instanceof Var lValue) {
+            def = lValue;
+            eval = evaluatePacked(defStmt.getRValue(), in);
         }
-        return !oldOut.equals(out);
+        boolean changed = meetInto(in, out, def);
+        if (def != null) {
+            changed |= out instanceof DenseCPFact denseOut ?
+                    denseOut.updatePacked(def, eval) :
+                    out.update(def, PackedValues.unpack(eval));
+        }
+        return changed;
     }
 
     /**
@@ -153,12 +211,20 @@ public class ConstantPropagation extends
     }
 
     public static Value getValue(Var var, CPFact in) {
+        return PackedValues.unpack(getPackedValue(var, in));
+    }
+
+    /**
+     * @return the packed value of given variable in given fact.
+     */
+    private static long getPackedValue(Var var, CPFact in) {
         if (!canHoldInt(var))
-            return Value.getUndef();
+            return PackedValues.UNDEF;
         if (var.isTempConst() && var.getTempConstValue() instanceof IntLiteral intLiteral) {
-            return Value.makeConstant(intLiteral.getValue());
+            return PackedValues.makeConstant(intLiteral.getValue());
         }
-        return in.get(var);
+        return in instanceof DenseCPFact dense ?
+                dense.getPacked(var) : PackedValues.pack(in.get(var));
     }
 
     /**
@@ -169,31 +235,85 @@ public class ConstantPropagation extends
      * @return the resulting {@link Value}
      */
     public static Value evaluate(Exp exp, CPFact in) {
+        return PackedValues.unpack(evaluatePacked(exp, in));
+    }
+
+    /**
+     * Evaluates the packed value of given expression, which avoids
+     * allocating {@link Value}s for intermediate results.
+     *
+     * @see #evaluate(Exp, CPFact)
+     */
+    static long evaluatePacked(Exp exp, CPFact in) {
         // TODO - finish me
         if (exp instanceof IntLiteral intLiteral) {
-            return Value.makeConstant(intLiteral.getValue());
+            return PackedValues.makeConstant(intLiteral.getValue());
         } else if (exp instanceof Var rVar) {
-            return getValue(rVar, in);
+            return getPackedValue(rVar, in);
         } else if (exp instanceof BinaryExp biExp) {
-            Value v1 = getValue(biExp.getOperand1(), in);
-            Value v2 = getValue(biExp.getOperand2(), in);
-            if (v1.isConstant() && v2.isConstant()) {
-                var v = evaluateBiExp(biExp, v1.getConstant(), v2.getConstant());
-                return Value.makeConstant(v);
-            } else if (v1.isNAC() || v2.isNAC()) {
-                return Value.getNAC();
+            long v1 = getPackedValue(biExp.getOperand1(), in);
+            long v2 = getPackedValue(biExp.getOperand2(), in);
+            if (PackedValues.isConstant(v1) && PackedValues.isConstant(v2)) {
+                var v = evaluateBiExp(biExp, PackedValues.getConstant(v1),
+                        PackedValues.getConstant(v2));
+                return PackedValues.makeConstant(v);
+            } else if (v1 == PackedValues.NAC || v2 == PackedValues.NAC) {
+                return PackedValues.NAC;
             } else {
-                return Value.getUndef();
+                return PackedValues.UNDEF;
             }
         } else if (exp instanceof InvokeExp) {
             // 同理使用最 safe 最 useless 的情况
-            return Value.getNAC();
+            return PackedValues.NAC;
         }
         // 测试 interprocedure 里面，有一个 InvokeSpecial
         // 不知道其他是什么 Exp 了！全都给我 NAC 吧！
+        return PackedValues.NAC;
+    }
+
+    /**
+     * Evaluates the {@link Value} which decides the out edges taken by
+     * given statement, i.e., the condition of an {@link If} or the
+     * variable of a {@link SwitchStmt}.
+     *
+     * @param in IN fact of the statement
+     * @return the resulting {@link Value}, or NAC if the statement
+     * is not a branch statement or its condition is not over ints.
+     */
+    public static Value evaluateCondition(Stmt stmt, CPFact in) {
+        if (stmt instanceof If ifStmt) {
+            ConditionExp condition = ifStmt.getCondition();
+            if (!canHoldInt(condition.getOperand1())
+                    || !canHoldInt(condition.getOperand2())) {
+                // e.g., comparison of references or long values, which is
+                // never evaluated, thus either branch may be taken
+                return Value.getNAC();
+            }
+            return evaluate(condition, in);
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            return getValue(switchStmt.getVar(), in);
+        }
         return Value.getNAC();
     }
 
+    /**
+     * @param edge      an out edge of a branch statement
+     * @param condition the constant value of the branch condition,
+     *                  see {@link #evaluateCondition(Stmt, CPFact)}
+     * @return true if the edge is taken when the branch condition
+     * equals to given constant, otherwise false.
+     */
+    public static boolean isTaken(Edge<Stmt> edge, int condition) {
+        return switch (edge.getKind()) {
+            case IF_TRUE -> condition == 1;
+            case IF_FALSE -> condition == 0;
+            case SWITCH_CASE -> edge.getCaseValue() == condition;
+            case SWITCH_DEFAULT -> !((SwitchStmt) edge.getSource())
+                    .getCaseValues().contains(condition);
+            default -> true;
+        };
+    }
+
     public static int toInt(boolean bool) {
         return bool ? 1 : 0;
     }
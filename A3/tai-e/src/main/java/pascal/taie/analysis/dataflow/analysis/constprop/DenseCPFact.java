@@ -0,0 +1,311 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.Var;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Array-backed {@link CPFact} for the variables of a method.
+ * <p>
+ * The lattice value of each variable is packed into a long (see
+ * {@code PackedValues}), and stored in a slot of a long array,
+ * which is indexed by {@link Var#getIndex()}.
+ * UNDEF is packed as 0, so that a fresh fact maps all variables to UNDEF.
+ * Meet, copy and equality test on two facts of the same variables work
+ * directly on the slots, and {@link #meet(DenseCPFact, Var)} and
+ * {@link #update(Var, Value)} report whether the fact changes, so that
+ * the transfer function does not need to take a snapshot for comparison.
+ */
+public class DenseCPFact extends CPFact {
+
+    /**
+     * The slots of this fact, shared with the backing map of {@link CPFact}.
+     */
+    private final Slots slots;
+
+    /**
+     * Constructs a new fact which maps all given variables to UNDEF.
+     *
+     * @param vars the variables of a method, i.e., the variable at position
+     *             {@code i} of the list must have index {@code i}.
+     */
+    public DenseCPFact(List<Var> vars) {
+        this(new Slots(vars, new long[vars.size()]));
+    }
+
+    private DenseCPFact(Slots slots) {
+        super(slots, false);
+        this.slots = slots;
+    }
+
+    @Override
+    public Value get(Var key) {
+        return PackedValues.unpack(getPacked(key));
+    }
+
+    /**
+     * @return the packed value of given variable in this fact, or UNDEF
+     * if the variable is not a variable of this fact.
+     */
+    long getPacked(Var key) {
+        int i = slots.indexOf(key);
+        return i >= 0 ? slots.values[i] : PackedValues.UNDEF;
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        return updatePacked(key, PackedValues.pack(value));
+    }
+
+    /**
+     * Updates the packed value of given variable in this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     * @throws IllegalArgumentException if the variable is not a variable
+     *                                  of this fact and the value is not UNDEF
+     */
+    boolean updatePacked(Var key, long value) {
+        long[] values = slots.values;
+        int i = slots.checkedIndexOf(key, value);
+        if (i >= 0 && values[i] != value) {
+            values[i] = value;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Meets other fact into this fact, except the value of given variable.
+     *
+     * @param other  the fact to be met into this fact, which must be
+     *               of the same variables as this fact
+     * @param except the variable whose value is not touched, or null
+     *               if all variables take part in the meet
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(DenseCPFact other, Var except) {
+        long[] values = slots.values;
+        long[] otherValues = other.slots.values;
+        int exceptIndex = slots.indexOf(except);
+        boolean changed = false;
+        for (int i = 0; i < values.length; ++i) {
+            long oldValue = values[i];
+            long newValue = PackedValues.meet(oldValue, otherValues[i]);
+            if (newValue != oldValue && i != exceptIndex) {
+                values[i] = newValue;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return true if other fact is a {@link DenseCPFact} of
+     * the same variables as this fact, otherwise false.
+     */
+    public boolean isCompatible(CPFact other) {
+        return other instanceof DenseCPFact that
+                && that.slots.vars == slots.vars;
+    }
+
+    @Override
+    public DenseCPFact copy() {
+        return new DenseCPFact(new Slots(slots.vars, slots.values.clone()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof DenseCPFact that && that.slots.vars == slots.vars) {
+            return Arrays.equals(slots.values, that.slots.values);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with equals() of CPFact
+        return super.hashCode();
+    }
+
+    /**
+     * Map view of the slots, which serves as the backing map of
+     * {@link DenseCPFact}. Following {@link CPFact}, variables whose
+     * values are UNDEF are absent in this map.
+     */
+    private static class Slots extends AbstractMap<Var, Value> {
+
+        private final List<Var> vars;
+
+        private final long[] values;
+
+        private Slots(List<Var> vars, long[] values) {
+            this.vars = vars;
+            this.values = values;
+        }
+
+        private int indexOf(Object key) {
+            if (key instanceof Var var) {
+                int i = var.getIndex();
+                if (i < vars.size() && vars.get(i) == var) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the index of given variable, or -1 if it is not a variable
+         * of this map and the given value is UNDEF, i.e., nothing to store.
+         * @throws IllegalArgumentException if the variable is not a variable
+         *                                  of this map and the value is not UNDEF
+         */
+        private int checkedIndexOf(Var key, long value) {
+            int i = indexOf(key);
+            if (i < 0 && value != PackedValues.UNDEF) {
+                throw new IllegalArgumentException(
+                        key + " is not a variable of this fact");
+            }
+            return i;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            int i = indexOf(key);
+            return i >= 0 && values[i] != PackedValues.UNDEF;
+        }
+
+        @Override
+        public Value get(Object key) {
+            int i = indexOf(key);
+            return i >= 0 && values[i] != PackedValues.UNDEF ?
+                    PackedValues.unpack(values[i]) : null;
+        }
+
+        @Override
+        public Value put(Var key, Value value) {
+            long packed = PackedValues.pack(value);
+            int i = checkedIndexOf(key, packed);
+            if (i < 0) {
+                return null;
+            }
+            long oldValue = values[i];
+            values[i] = packed;
+            return oldValue != PackedValues.UNDEF ? PackedValues.unpack(oldValue) : null;
+        }
+
+        @Override
+        public Value remove(Object key) {
+            int i = indexOf(key);
+            if (i >= 0 && values[i] != PackedValues.UNDEF) {
+                Value oldValue = PackedValues.unpack(values[i]);
+                values[i] = PackedValues.UNDEF;
+                return oldValue;
+            }
+            return null;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, PackedValues.UNDEF);
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (long value : values) {
+                if (value != PackedValues.UNDEF) {
+                    ++size;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Entry<Var, Value>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Var, Value>> iterator() {
+                    return new Iterator<>() {
+
+                        private int next = nextDefined(0);
+
+                        private int last = -1;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < values.length;
+                        }
+
+                        @Override
+                        public Entry<Var, Value> next() {
+                            if (next >= values.length) {
+                                throw new NoSuchElementException();
+                            }
+                            last = next;
+                            next = nextDefined(next + 1);
+                            return new SimpleImmutableEntry<>(
+                                    vars.get(last), PackedValues.unpack(values[last]));
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last < 0) {
+                                throw new IllegalStateException();
+                            }
+                            values[last] = PackedValues.UNDEF;
+                            last = -1;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Slots.this.size();
+                }
+            };
+        }
+
+        /**
+         * @return index of the first non-UNDEF slot at or after given index,
+         * or length of the slots if there is no such slot.
+         */
+        private int nextDefined(int fromIndex) {
+            int i = fromIndex;
+            while (i < values.length && values[i] == PackedValues.UNDEF) {
+                ++i;
+            }
+            return i;
+        }
+    }
+}
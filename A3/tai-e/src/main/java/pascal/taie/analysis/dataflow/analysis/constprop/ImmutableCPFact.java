@@ -0,0 +1,93 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.ArrayMap;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable {@link CPFact}, which is created when hash-consing
+ * the result of constant propagation.
+ * <p>
+ * As an immutable fact never changes, {@link #copy()} returns the fact
+ * itself, and its hash code is computed only once. All operations that
+ * modify the fact throw {@link UnsupportedOperationException}.
+ *
+ * @see pascal.taie.analysis.dataflow.fact.DataflowResult#hashCons(java.util.function.UnaryOperator)
+ */
+public class ImmutableCPFact extends CPFact {
+
+    /**
+     * Facts not larger than this threshold are backed by arrays.
+     */
+    private static final int ARRAY_SIZE = 16;
+
+    private final int hashCode;
+
+    /**
+     * Constructs an immutable fact with the same mappings as given fact.
+     */
+    public ImmutableCPFact(CPFact fact) {
+        super(Collections.unmodifiableMap(compactCopy(fact)), false);
+        hashCode = super.hashCode();
+    }
+
+    private static Map<Var, Value> compactCopy(CPFact fact) {
+        int size = fact.keySet().size();
+        if (size == 0) {
+            return Collections.emptyMap();
+        }
+        Map<Var, Value> copy = size <= ARRAY_SIZE ?
+                new ArrayMap<>(size, true) : Maps.newHybridMap();
+        fact.forEach(copy::put);
+        return copy;
+    }
+
+    /**
+     * @return this fact, as it is immutable.
+     */
+    @Override
+    public ImmutableCPFact copy() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof ImmutableCPFact that && that.hashCode != hashCode) {
+            return false;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+/**
+ * Static utility methods for lattice values packed into longs.
+ * <p>
+ * The high 32 bits of a packed value hold the kind of the value,
+ * and the low 32 bits hold the constant (if any). UNDEF is packed as 0,
+ * so that a fresh long array holds UNDEF for all its slots.
+ * Constant propagation evaluates and meets packed values, so that
+ * it does not allocate {@link Value} objects for constants, and
+ * {@link Value} is only materialized at API boundaries.
+ */
+final class PackedValues {
+
+    private PackedValues() {
+    }
+
+    static final long UNDEF = 0L;
+
+    static final long NAC = 2L << 32;
+
+    private static final long CONSTANT = 1L << 32;
+
+    private static final long KIND_MASK = 0xFFFFFFFFL << 32;
+
+    /**
+     * @return the packed value of given constant.
+     */
+    static long makeConstant(int constant) {
+        return CONSTANT | (constant & 0xFFFFFFFFL);
+    }
+
+    static boolean isConstant(long value) {
+        return (value & KIND_MASK) == CONSTANT;
+    }
+
+    /**
+     * @return the constant of given packed value, which must be a constant.
+     */
+    static int getConstant(long value) {
+        return (int) value;
+    }
+
+    /**
+     * @return the packed value of given {@link Value}.
+     */
+    static long pack(Value value) {
+        if (value.isConstant()) {
+            return makeConstant(value.getConstant());
+        } else if (value.isNAC()) {
+            return NAC;
+        } else {
+            return UNDEF;
+        }
+    }
+
+    /**
+     * @return the {@link Value} of given packed value.
+     */
+    static Value unpack(long value) {
+        if (isConstant(value)) {
+            return Value.makeConstant(getConstant(value));
+        } else if (value == NAC) {
+            return Value.getNAC();
+        } else {
+            return Value.getUndef();
+        }
+    }
+
+    /**
+     * Meets two packed values.
+     */
+    static long meet(long v1, long v2) {
+        if (v1 == v2 || v2 == UNDEF) {
+            return v1;
+        } else if (v1 == UNDEF) {
+            return v2;
+        } else {
+            // two different constants, or NAC with anything
+            return NAC;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.UseDefTable;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Sparse conditional constant propagation.
+ * <p>
+ * Instead of keeping a whole {@link CPFact} for every statement, this
+ * engine keeps one {@link Value} for every definition and propagates
+ * changed values along def-use chains. Only statements reachable via
+ * feasible out edges of branch statements are evaluated. Since the IR
+ * is not in SSA form, a use may be reached by multiple definitions,
+ * whose values are met when the use is evaluated.
+ * <p>
+ * The use-def and def-use chains are found by backward searches from the
+ * uses before solving. The result is exposed as a {@link DataflowResult}
+ * whose facts are materialized on every query by a backward search from
+ * the statement and are not cached, thus the memory kept after solving is
+ * proportional to the number of definitions and their uses rather than
+ * statements &times; variables.
+ */
+class SparseConstantPropagation {
+
+    private final CFG<Stmt> cfg;
+
+    private final IR ir;
+
+    private final UseDefTable table;
+
+    /**
+     * Packed value (see {@link PackedValues}) defined by each statement,
+     * indexed by {@link Stmt#getIndex()}.
+     * The entry of CFG defines all parameters as NAC.
+     */
+    private final long[] values;
+
+    /**
+     * Statements which are reachable via feasible edges.
+     */
+    private final BitSet reachable;
+
+    /**
+     * Use-def chains: statement -> used variable -> reaching definitions.
+     */
+    private final Map<Stmt, Map<Var, List<Stmt>>> useDefs;
+
+    /**
+     * Def-use chains: definition -> statements using its value.
+     */
+    private final Map<Stmt, Set<Stmt>> defUses;
+
+    SparseConstantPropagation(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        this.ir = cfg.getIR();
+        this.table = UseDefTable.of(ir);
+        int size = cfg.getNumberOfNodes();
+        this.values = new long[size];
+        this.reachable = new BitSet(size);
+        this.useDefs = Maps.newMap();
+        this.defUses = Maps.newMap();
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        buildChains();
+        Queue<Stmt> flowWorkList = new ArrayDeque<>();
+        Queue<Stmt> useWorkList = new SetQueue<>();
+        reachable.set(cfg.getEntry().getIndex());
+        flowWorkList.add(cfg.getEntry());
+        while (!flowWorkList.isEmpty() || !useWorkList.isEmpty()) {
+            Stmt stmt = !flowWorkList.isEmpty() ?
+                    flowWorkList.poll() : useWorkList.poll();
+            CPFact in = getUseFact(stmt);
+            if (getDefVar(stmt) != null) {
+                long value = evaluate(((DefinitionStmt<?, ?>) stmt).getRValue(), in);
+                if (value != values[stmt.getIndex()]) {
+                    values[stmt.getIndex()] = value;
+                    for (Stmt use : defUses.getOrDefault(stmt, Set.of())) {
+                        if (reachable.get(use.getIndex())) {
+                            useWorkList.add(use);
+                        }
+                    }
+                }
+            }
+            Value condition = ConstantPropagation.evaluateCondition(stmt, in);
+            if (condition.isUndef()) {
+                // the condition is only UNDEF when some of its operands
+                // are not defined yet (see evaluate()), and this statement
+                // will be evaluated again when their definitions change
+                continue;
+            }
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                Stmt target = edge.getTarget();
+                if ((condition.isNAC() ||
+                        ConstantPropagation.isTaken(edge, condition.getConstant()))
+                        && !reachable.get(target.getIndex())) {
+                    reachable.set(target.getIndex());
+                    flowWorkList.add(target);
+                }
+            }
+        }
+        return new Result();
+    }
+
+    /**
+     * @return true if given statement is reachable via feasible edges.
+     */
+    boolean isReachable(Stmt stmt) {
+        return reachable.get(stmt.getIndex());
+    }
+
+    /**
+     * Evaluates given expression like
+     * {@link ConstantPropagation#evaluatePacked(Exp, CPFact)}, except that
+     * binary expressions over non-int operands (e.g., 'l1 cmp l2' on longs)
+     * are evaluated to NAC instead of UNDEF. Otherwise, the branches
+     * depending on their results would never be taken.
+     */
+    private static long evaluate(Exp exp, CPFact in) {
+        if (exp instanceof BinaryExp biExp
+                && (!ConstantPropagation.canHoldInt(biExp.getOperand1())
+                || !ConstantPropagation.canHoldInt(biExp.getOperand2()))) {
+            return PackedValues.NAC;
+        }
+        return ConstantPropagation.evaluatePacked(exp, in);
+    }
+
+    /**
+     * @return the variable defined by given statement, or null if
+     * the statement does not define a variable.
+     */
+    private static Var getDefVar(Stmt stmt) {
+        return stmt instanceof DefinitionStmt<?, ?> defStmt
+                && defStmt.getLValue() instanceof Var var ? var : null;
+    }
+
+    /**
+     * Builds use-def and def-use chains of the variables that may hold
+     * integer values, as other variables are never evaluated to constants.
+     */
+    private void buildChains() {
+        for (Stmt stmt : cfg) {
+            BitSet vars = new BitSet();
+            for (int use : table.getUses(stmt)) {
+                Var var = table.getVar(use);
+                if (ConstantPropagation.canHoldInt(var) && !var.isTempConst()) {
+                    vars.set(var.getIndex());
+                }
+            }
+            if (!vars.isEmpty()) {
+                Map<Var, List<Stmt>> defs = Maps.newHybridMap();
+                searchReachingDefs(stmt, vars, (var, def) -> {
+                    defs.computeIfAbsent(var, __ -> new ArrayList<>()).add(def);
+                    defUses.computeIfAbsent(def, __ -> Sets.newHybridSet()).add(stmt);
+                });
+                useDefs.put(stmt, defs);
+            }
+        }
+    }
+
+    /**
+     * Searches backward from the program point before given statement for
+     * the definitions of given variables (indexed by {@link Var#getIndex()})
+     * which reach the point, and passes each of them to given consumer
+     * together with the defined variable. The entry of CFG is regarded as
+     * the definition of all parameters.
+     */
+    private void searchReachingDefs(Stmt stmt, BitSet vars,
+                                    BiConsumer<Var, Stmt> consumer) {
+        // variables already searched at the program point after each node
+        Map<Stmt, BitSet> searched = Maps.newMap();
+        Queue<Stmt> workList = new ArrayDeque<>();
+        Queue<BitSet> workVars = new ArrayDeque<>();
+        for (Stmt pred : cfg.getPredsOf(stmt)) {
+            workList.add(pred);
+            workVars.add(vars);
+        }
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            BitSet search = (BitSet) workVars.poll().clone();
+            BitSet done = searched.computeIfAbsent(node, __ -> new BitSet());
+            search.andNot(done);
+            if (search.isEmpty()) {
+                continue;
+            }
+            done.or(search);
+            if (cfg.isEntry(node)) {
+                for (Var param : ir.getParams()) {
+                    if (search.get(param.getIndex())) {
+                        consumer.accept(param, node);
+                    }
+                }
+                continue;
+            }
+            Var def = getDefVar(node);
+            if (def != null && search.get(def.getIndex())) {
+                consumer.accept(def, node);
+                search.clear(def.getIndex());
+            }
+            if (!search.isEmpty()) {
+                for (Stmt pred : cfg.getPredsOf(node)) {
+                    workList.add(pred);
+                    workVars.add(search);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the packed value defined by given definition,
+     * or UNDEF if the definition is unreachable.
+     */
+    private long getDefValue(Stmt def) {
+        if (cfg.isEntry(def)) {
+            return PackedValues.NAC;
+        }
+        return reachable.get(def.getIndex()) ?
+                values[def.getIndex()] : PackedValues.UNDEF;
+    }
+
+    /**
+     * @return a fact holding the values of the variables used by given
+     * statement, which is sufficient to evaluate the statement.
+     */
+    private CPFact getUseFact(Stmt stmt) {
+        CPFact fact = new CPFact();
+        useDefs.getOrDefault(stmt, Map.of()).forEach((var, defs) -> {
+            long value = PackedValues.UNDEF;
+            for (Stmt def : defs) {
+                value = PackedValues.meet(getDefValue(def), value);
+            }
+            fact.update(var, PackedValues.unpack(value));
+        });
+        return fact;
+    }
+
+    /**
+     * Materializes the fact of all variables at the program point before
+     * given statement.
+     */
+    private DenseCPFact getInFact(Stmt stmt) {
+        DenseCPFact in = new DenseCPFact(ir.getVars());
+        if (reachable.get(stmt.getIndex())) {
+            BitSet vars = new BitSet();
+            vars.set(0, ir.getVars().size());
+            searchReachingDefs(stmt, vars, (var, def) -> in.updatePacked(var,
+                    PackedValues.meet(getDefValue(def), in.getPacked(var))));
+        }
+        return in;
+    }
+
+    /**
+     * Materializes the fact of all variables at the program point after
+     * given statement, i.e., its IN fact updated by its definition.
+     */
+    private DenseCPFact getOutFact(Stmt stmt) {
+        DenseCPFact out = getInFact(stmt);
+        if (reachable.get(stmt.getIndex())) {
+            if (cfg.isEntry(stmt)) {
+                ir.getParams().forEach(p -> out.update(p, Value.getNAC()));
+            } else {
+                Var var = getDefVar(stmt);
+                if (var != null) {
+                    out.updatePacked(var, values[stmt.getIndex()]);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * View of the sparse result as a {@link DataflowResult}.
+     * The facts are computed on every query and not cached.
+     */
+    private class Result extends DataflowResult<Stmt, CPFact> {
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            return SparseConstantPropagation.this.getInFact(stmt);
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            return SparseConstantPropagation.this.getOutFact(stmt);
+        }
+
+        @Override
+        public void setInFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOutFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents set-like data-flow facts as bit vectors.
+ * <p>
+ * Each element is represented by the bit at its index, thus all elements
+ * of a fact must come from the given element list, and the element at
+ * position {@code i} of the list must have index {@code i}, e.g., the
+ * variables of an IR (see {@link pascal.taie.ir.IR#getVars()}).
+ * Operations on two facts of the same element list, such as union,
+ * intersection and equality test, work word by word on the bit vectors.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * The bits of this fact, shared with the backing set of {@link SetFact}.
+     */
+    private final Bits<E> bits;
+
+    /**
+     * Constructs a new empty fact over given elements.
+     *
+     * @param elements all possible elements of this fact, indexed by
+     *                 {@link Indexable#getIndex()}.
+     */
+    public BitSetFact(List<E> elements) {
+        this(new Bits<>(elements, new long[wordIndex(elements.size() - 1) + 1]));
+    }
+
+    /**
+     * Constructs a new fact holding the same elements as given fact.
+     */
+    protected BitSetFact(BitSetFact<E> fact) {
+        this(new Bits<>(fact.bits.elements, fact.bits.words.clone()));
+    }
+
+    private BitSetFact(Bits<E> bits) {
+        super(bits, false);
+        this.bits = bits;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * @return the bit vector of given fact if it is compatible with
+     * this fact, i.e., it is a {@link BitSetFact} over the same elements,
+     * otherwise null.
+     */
+    private long[] wordsOf(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that
+                && that.bits.elements == bits.elements) {
+            return that.bits.words;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null) {
+            return super.union(other);
+        }
+        long[] words = bits.words;
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long oldWord = words[i];
+            words[i] = oldWord | otherWords[i];
+            changed |= words[i] != oldWord;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null) {
+            return super.intersect(other);
+        }
+        long[] words = bits.words;
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long oldWord = words[i];
+            words[i] = oldWord & otherWords[i];
+            changed |= words[i] != oldWord;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean diff(SetFact<E> other) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null) {
+            return super.diff(other);
+        }
+        long[] words = bits.words;
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long oldWord = words[i];
+            words[i] = oldWord & ~otherWords[i];
+            changed |= words[i] != oldWord;
+        }
+        return changed;
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null) {
+            super.set(other);
+        } else {
+            System.arraycopy(otherWords, 0, bits.words, 0, otherWords.length);
+        }
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        return new BitSetFact<>(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof BitSetFact<?> that
+                && that.bits.elements == bits.elements) {
+            return Arrays.equals(bits.words, that.bits.words);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with equals() of SetFact, which compares
+        // facts of different representations as sets
+        return super.hashCode();
+    }
+
+    /**
+     * Set view of a bit vector, which serves as the backing set
+     * of {@link BitSetFact}.
+     */
+    private static class Bits<E extends Indexable> extends AbstractSet<E> {
+
+        private final List<E> elements;
+
+        private final long[] words;
+
+        private Bits(List<E> elements, long[] words) {
+            this.elements = elements;
+            this.words = words;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Indexable e) {
+                int index = e.getIndex();
+                return index < elements.size() && elements.get(index) == o
+                        && (words[wordIndex(index)] & (1L << index)) != 0;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean add(E e) {
+            int index = e.getIndex();
+            int wordIndex = wordIndex(index);
+            long oldWord = words[wordIndex];
+            words[wordIndex] = oldWord | (1L << index);
+            return words[wordIndex] != oldWord;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o)) {
+                int index = ((Indexable) o).getIndex();
+                words[wordIndex(index)] &= ~(1L << index);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(words, 0L);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = nextSetBit(0);
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public E next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = nextSetBit(next + 1);
+                    return elements.get(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    words[wordIndex(last)] &= ~(1L << last);
+                    last = -1;
+                }
+            };
+        }
+
+        /**
+         * @return index of the first set bit at or after given index,
+         * or -1 if there is no such bit.
+         */
+        private int nextSetBit(int fromIndex) {
+            int wordIndex = wordIndex(fromIndex);
+            if (wordIndex >= words.length) {
+                return -1;
+            }
+            long word = words[wordIndex] & (-1L << fromIndex);
+            while (true) {
+                if (word != 0) {
+                    return (wordIndex << ADDRESS_BITS_PER_WORD)
+                            + Long.numberOfTrailingZeros(word);
+                }
+                if (++wordIndex == words.length) {
+                    return -1;
+                }
+                word = words[wordIndex];
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A {@link NodeResult} which only keeps the data-flow facts at the
+ * boundaries of basic blocks, i.e., the IN fact of the first node of
+ * each block for forward analyses, and the OUT fact of the last node
+ * of each block for backward analyses. The facts of other nodes are
+ * recomputed on demand by replaying
+ * {@link DataflowAnalysis#transferNode(Object, Object, Object)}
+ * through the block, and the facts of recently queried blocks are
+ * cached in an LRU cache.
+ * <p>
+ * The facts returned by this result are shared and should not be modified.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class CompactDataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
+
+    /**
+     * Maximum number of materialized blocks kept in the cache.
+     */
+    private static final int CACHE_SIZE = 16;
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final BlockCFG<Node> blockCFG;
+
+    /**
+     * The fact at the boundary of each block, indexed by block index.
+     */
+    private final List<Fact> blockFacts;
+
+    /**
+     * Facts of the block containing only the entry (for forward analyses)
+     * or the exit (for backward analyses), which are given by the boundary
+     * fact rather than computed by transfer function, thus cannot be replayed.
+     */
+    private final Materialized<Fact> boundaryBlock;
+
+    private final int boundaryBlockId;
+
+    private final Map<Integer, Materialized<Fact>> cache =
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Integer, Materialized<Fact>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Compacts given node-level result of the analysis on the CFG.
+     */
+    public CompactDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                                 CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        this(analysis, new BlockCFG<>(cfg, analysis::needTransferEdge),
+                block -> result.getInFact(block.getFirstNode()),
+                block -> result.getOutFact(block.getLastNode()));
+    }
+
+    /**
+     * Creates a result from given block-level result of the analysis,
+     * where the IN (OUT) fact of a block is the IN (OUT) fact of its
+     * first (last) node.
+     */
+    public CompactDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                                 BlockCFG<Node> blockCFG,
+                                 DataflowResult<BasicBlock<Node>, Fact> result) {
+        this(analysis, blockCFG, result::getInFact, result::getOutFact);
+    }
+
+    private CompactDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                                  BlockCFG<Node> blockCFG,
+                                  Function<BasicBlock<Node>, Fact> inFactOf,
+                                  Function<BasicBlock<Node>, Fact> outFactOf) {
+        this.analysis = analysis;
+        this.blockCFG = blockCFG;
+        List<BasicBlock<Node>> blocks = blockCFG.getBlocks();
+        this.blockFacts = new ArrayList<>(blocks.size());
+        for (BasicBlock<Node> block : blocks) {
+            blockFacts.add(analysis.isForward() ?
+                    inFactOf.apply(block) : outFactOf.apply(block));
+        }
+        BasicBlock<Node> boundary = analysis.isForward() ?
+                blockCFG.getEntry() : blockCFG.getExit();
+        boundaryBlockId = boundary.getIndex();
+        boundaryBlock = new Materialized<>(1);
+        boundaryBlock.inFacts[0] = inFactOf.apply(boundary);
+        boundaryBlock.outFacts[0] = outFactOf.apply(boundary);
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        BasicBlock<Node> block = blockCFG.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        return materialize(block).inFacts[blockCFG.getPositionOf(node)];
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        BasicBlock<Node> block = blockCFG.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        return materialize(block).outFacts[blockCFG.getPositionOf(node)];
+    }
+
+    /**
+     * @return the facts of all nodes in given block.
+     */
+    private synchronized Materialized<Fact> materialize(BasicBlock<Node> block) {
+        if (block.getIndex() == boundaryBlockId) {
+            return boundaryBlock;
+        }
+        return cache.computeIfAbsent(block.getIndex(), __ -> replay(block));
+    }
+
+    private Materialized<Fact> replay(BasicBlock<Node> block) {
+        List<Node> nodes = block.getNodes();
+        CFG<Node> cfg = blockCFG.getBaseCFG();
+        Materialized<Fact> facts = new Materialized<>(nodes.size());
+        if (analysis.isForward()) {
+            Fact in = blockFacts.get(block.getIndex());
+            for (int i = 0; i < nodes.size(); ++i) {
+                Fact out = analysis.newInitialFact(cfg);
+                analysis.transferNode(nodes.get(i), in, out);
+                facts.inFacts[i] = in;
+                facts.outFacts[i] = out;
+                in = out;
+            }
+        } else {
+            Fact out = blockFacts.get(block.getIndex());
+            for (int i = nodes.size() - 1; i >= 0; --i) {
+                Fact in = analysis.newInitialFact(cfg);
+                analysis.transferNode(nodes.get(i), in, out);
+                facts.inFacts[i] = in;
+                facts.outFacts[i] = out;
+                out = in;
+            }
+        }
+        return facts;
+    }
+
+    /**
+     * IN and OUT facts of the nodes in a block.
+     */
+    private static class Materialized<Fact> {
+
+        private final Fact[] inFacts;
+
+        private final Fact[] outFacts;
+
+        @SuppressWarnings("unchecked")
+        private Materialized(int size) {
+            inFacts = (Fact[]) new Object[size];
+            outFacts = (Fact[]) new Object[size];
+        }
+    }
+}
@@ -22,8 +22,10 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 /**
  * An object which manages the data-flow facts associated with nodes.
@@ -66,4 +68,29 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
     public void setOutFact(Node node, Fact fact) {
         outFacts.put(node, fact);
     }
+
+    /**
+     * Hash-conses the facts of this result, i.e., replaces each fact by
+     * an immutable fact, so that all equal facts in this result share
+     * one instance. This saves the memory of holding the result, as many
+     * adjacent nodes usually have equal facts.
+     *
+     * @param makeImmutable creates an immutable fact which equals given fact
+     */
+    public void hashCons(UnaryOperator<Fact> makeImmutable) {
+        Map<Fact, Fact> canonicalFacts = new HashMap<>();
+        UnaryOperator<Fact> canonicalize = fact -> {
+            if (fact == null) {
+                return null;
+            }
+            Fact canonical = canonicalFacts.get(fact);
+            if (canonical == null) {
+                canonical = makeImmutable.apply(fact);
+                canonicalFacts.put(canonical, canonical);
+            }
+            return canonical;
+        };
+        inFacts.replaceAll((node, fact) -> canonicalize.apply(fact));
+        outFacts.replaceAll((node, fact) -> canonicalize.apply(fact));
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads data-flow results written by {@link DataflowResultWriter}.
+ * <p>
+ * The results are read block by block: {@link #next()} moves to
+ * the next block, and then {@link #read(IR, FactCodec)} decodes
+ * the result in current block, which can be skipped by calling
+ * {@link #next()} again.
+ */
+public class DataflowResultReader implements Closeable {
+
+    private final DataInputStream in;
+
+    private String method;
+
+    private String analysis;
+
+    private byte[] block;
+
+    public DataflowResultReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (this.in.readInt() != DataflowResultWriter.MAGIC) {
+            throw new IOException("Not a data-flow result file");
+        }
+        int version = this.in.readInt();
+        if (version != DataflowResultWriter.VERSION) {
+            throw new IOException("Unsupported version of data-flow results: "
+                    + version);
+        }
+    }
+
+    /**
+     * Moves to the next block of results.
+     *
+     * @return false if there is no more block, otherwise true.
+     */
+    public boolean next() throws IOException {
+        try {
+            method = in.readUTF();
+        } catch (EOFException e) {
+            method = analysis = null;
+            block = null;
+            return false;
+        }
+        analysis = in.readUTF();
+        block = new byte[readVarInt(in)];
+        in.readFully(block);
+        return true;
+    }
+
+    /**
+     * @return the signature of the method of current block.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the ID of the analysis of current block.
+     */
+    public String getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Decodes the result in current block.
+     *
+     * @param ir    the IR of the method of current block
+     * @param codec codec of the facts in the result
+     * @throws IllegalArgumentException if the variables or stmts of ir
+     *                                  differ from the ones of the result.
+     */
+    public <Fact> DataflowResult<Stmt, Fact> read(IR ir, FactCodec<Fact> codec)
+            throws IOException {
+        if (block == null) {
+            throw new IllegalStateException("No current block of results");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+        List<Var> vars = ir.getVars();
+        int varCount = readVarInt(in);
+        boolean matched = varCount == vars.size();
+        for (int i = 0; i < varCount; ++i) {
+            String name = in.readUTF();
+            matched = matched && name.equals(vars.get(i).getName());
+        }
+        List<Stmt> stmts = ir.getStmts();
+        if (!matched || readVarInt(in) != stmts.size()) {
+            throw new IllegalArgumentException("Results of " + method
+                    + " (" + analysis + ") do not match its IR");
+        }
+        DataflowResult<Stmt, Fact> result = new DataflowResult<>();
+        long[] values = new long[varCount];
+        for (Stmt stmt : stmts) {
+            result.setInFact(stmt, readFact(in, codec, values, vars));
+        }
+        Arrays.fill(values, 0);
+        for (Stmt stmt : stmts) {
+            result.setOutFact(stmt, readFact(in, codec, values, vars));
+        }
+        return result;
+    }
+
+    /**
+     * Applies the difference of next fact to values, and decodes the fact.
+     */
+    private static <Fact> Fact readFact(DataInputStream in, FactCodec<Fact> codec,
+                                        long[] values, List<Var> vars)
+            throws IOException {
+        int changes = readVarInt(in) - 1;
+        if (changes < 0) {
+            Arrays.fill(values, 0);
+            return null;
+        }
+        int last = -1;
+        for (int i = 0; i < changes; ++i) {
+            last += readVarInt(in) + 1;
+            values[last] = readVarLong(in);
+        }
+        return codec.decode(values, vars);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes data-flow results in a compact binary format, which can be read
+ * back by {@link DataflowResultReader} without re-running the analyses.
+ * <p>
+ * The results are written in blocks, one block per (method, analysis).
+ * A block begins with the signature of the method, the ID of the analysis
+ * and the size of the rest of the block, which consists of:
+ * <ul>
+ *     <li>the dictionary of variables, i.e., the names of the variables
+ *     of the method in the order of their indexes, with which the facts
+ *     refer to the variables, and the reader checks that it reads the
+ *     results of the same IR;</li>
+ *     <li>the IN facts of the stmts in the order of stmt indexes,
+ *     followed by their OUT facts.</li>
+ * </ul>
+ * Each fact is encoded by {@link FactCodec} and stored as its difference
+ * with the previous fact in the same column, as adjacent stmts usually have
+ * similar facts: the number of changed variables plus 1 (or 0 for null
+ * fact), then for each changed variable, the gap from the index of the
+ * previously changed one and its new value. All integers are written as
+ * variable-length quantities.
+ * <p>
+ * Only the facts of the stmts in IR are written, thus the facts of
+ * the entry and exit nodes of the CFG are not preserved.
+ */
+public class DataflowResultWriter implements Closeable, Flushable {
+
+    static final int MAGIC = 0x54414952; // "TAIR"
+
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+
+    private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream();
+
+    private final DataOutputStream block = new DataOutputStream(blockBuffer);
+
+    public DataflowResultWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    /**
+     * Writes the result of an analysis on given IR.
+     *
+     * @param ir       the IR which the result is about
+     * @param analysis ID of the analysis
+     * @param result   result of the analysis
+     * @param codec    codec of the facts in the result
+     */
+    public <Fact> void write(IR ir, String analysis,
+                             NodeResult<Stmt, Fact> result,
+                             FactCodec<Fact> codec) throws IOException {
+        blockBuffer.reset();
+        List<Var> vars = ir.getVars();
+        writeVarInt(block, vars.size());
+        for (Var var : vars) {
+            block.writeUTF(var.getName());
+        }
+        List<Stmt> stmts = ir.getStmts();
+        writeVarInt(block, stmts.size());
+        long[] prev = new long[vars.size()];
+        long[] curr = new long[vars.size()];
+        for (Stmt stmt : stmts) {
+            writeFact(result.getInFact(stmt), codec, prev, curr);
+            long[] t = prev;
+            prev = curr;
+            curr = t;
+        }
+        Arrays.fill(prev, 0);
+        for (Stmt stmt : stmts) {
+            writeFact(result.getOutFact(stmt), codec, prev, curr);
+            long[] t = prev;
+            prev = curr;
+            curr = t;
+        }
+        block.flush();
+        out.writeUTF(ir.getMethod().toString());
+        out.writeUTF(analysis);
+        writeVarInt(out, blockBuffer.size());
+        blockBuffer.writeTo(out);
+    }
+
+    /**
+     * Encodes fact into curr, and writes its difference with prev.
+     */
+    private <Fact> void writeFact(Fact fact, FactCodec<Fact> codec,
+                                  long[] prev, long[] curr) throws IOException {
+        Arrays.fill(curr, 0);
+        if (fact == null) {
+            writeVarInt(block, 0);
+            return;
+        }
+        codec.encode(fact, curr);
+        int changes = 0;
+        for (int i = 0; i < curr.length; ++i) {
+            if (curr[i] != prev[i]) {
+                ++changes;
+            }
+        }
+        writeVarInt(block, changes + 1);
+        int last = -1;
+        for (int i = 0; i < curr.length; ++i) {
+            if (curr[i] != prev[i]) {
+                writeVarInt(block, i - last - 1);
+                writeVarLong(block, curr[i]);
+                last = i;
+            }
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value)
+            throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value)
+            throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
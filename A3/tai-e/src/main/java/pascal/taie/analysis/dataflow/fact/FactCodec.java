@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.exp.Var;
+
+import java.util.List;
+
+/**
+ * Encodes the data-flow facts over the variables of a method into arrays
+ * of longs indexed by variable index, and decodes them back. This is used
+ * to serialize data-flow results, see {@link DataflowResultWriter}.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public interface FactCodec<Fact> {
+
+    /**
+     * Codec of sets of variables, which encodes the variables
+     * in a set as 1.
+     */
+    FactCodec<SetFact<Var>> VAR_SET = new FactCodec<>() {
+
+        @Override
+        public void encode(SetFact<Var> fact, long[] values) {
+            fact.stream().forEach(var -> values[var.getIndex()] = 1);
+        }
+
+        @Override
+        public SetFact<Var> decode(long[] values, List<Var> vars) {
+            SetFact<Var> fact = new SetFact<>();
+            for (int i = 0; i < values.length; ++i) {
+                if (values[i] != 0) {
+                    fact.add(vars.get(i));
+                }
+            }
+            return fact;
+        }
+    };
+
+    /**
+     * Encodes given fact into values, where {@code values[i]} is set to
+     * the value of the variable whose index is i. The values are 0 before
+     * the call, and 0 means that the variable is absent in the fact.
+     */
+    void encode(Fact fact, long[] values);
+
+    /**
+     * Decodes a fact from values encoded by {@link #encode(Object, long[])}.
+     *
+     * @param vars the variables of the method, indexed by variable index.
+     */
+    Fact decode(long[] values, List<Var> vars);
+}
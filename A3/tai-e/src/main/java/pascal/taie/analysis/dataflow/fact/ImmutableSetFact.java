@@ -0,0 +1,108 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.collection.ArraySet;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Immutable set-like data-flow facts, which are created when hash-consing
+ * the facts of a {@link DataflowResult}.
+ * <p>
+ * As an immutable fact never changes, {@link #copy()} returns the fact
+ * itself, and its hash code is computed only once. All operations that
+ * modify the fact throw {@link UnsupportedOperationException}.
+ *
+ * @param <E> type of elements
+ * @see DataflowResult#hashCons(java.util.function.UnaryOperator)
+ */
+public class ImmutableSetFact<E> extends SetFact<E> {
+
+    /**
+     * Facts not larger than this threshold are backed by arrays.
+     */
+    private static final int ARRAY_SIZE = 16;
+
+    private final int hashCode;
+
+    /**
+     * Constructs an immutable fact with the same elements as given fact.
+     */
+    public ImmutableSetFact(SetFact<E> fact) {
+        super(Collections.unmodifiableSet(compactCopy(fact.set)), false);
+        hashCode = set.hashCode();
+    }
+
+    private static <E> Set<E> compactCopy(Set<E> set) {
+        if (set.isEmpty()) {
+            return Collections.emptySet();
+        } else if (set.size() <= ARRAY_SIZE) {
+            Set<E> copy = new ArraySet<>(set.size(), true);
+            copy.addAll(set);
+            return copy;
+        } else {
+            return Sets.newHybridSet(set);
+        }
+    }
+
+    /**
+     * @return this fact, as it is immutable.
+     */
+    @Override
+    public ImmutableSetFact<E> copy() {
+        return this;
+    }
+
+    @Override
+    public SetFact<E> unionWith(SetFact<E> other) {
+        SetFact<E> result = new SetFact<>(set);
+        result.union(other);
+        return result;
+    }
+
+    @Override
+    public SetFact<E> intersectWith(SetFact<E> other) {
+        SetFact<E> result = new SetFact<>(set);
+        result.intersect(other);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof ImmutableSetFact<?> that && that.hashCode != hashCode) {
+            return false;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
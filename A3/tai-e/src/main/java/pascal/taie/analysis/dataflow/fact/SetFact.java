@@ -48,6 +48,15 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    /**
+     * Constructs a fact which is directly backed by given set, i.e.,
+     * the set is not copied. This allows subclasses to provide
+     * their own set representation.
+     */
+    protected SetFact(Set<E> set, boolean copy) {
+        this.set = copy ? Sets.newHybridSet(set) : set;
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
@@ -119,6 +128,15 @@ public class SetFact<E> {
         return result;
     }
 
+    /**
+     * Removes all elements of other fact from this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean diff(SetFact<E> other) {
+        return set.removeAll(other.set);
+    }
+
     /**
      * Sets the content of this set to the same as other set.
      */
@@ -0,0 +1,213 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Work-list solver which always processes the node with the smallest
+ * order in the work list. For forward analyses, nodes are ordered by
+ * reverse post-order of the CFG, and for backward analyses, nodes are
+ * ordered by post-order, so that a node is usually processed after its
+ * predecessors (successors in backward analyses) have been processed.
+ */
+class PriorityWorkListSolver<Node, Fact> extends WorkListSolver<Node, Fact> {
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected PriorityWorkList<Node> newWorkList(CFG<Node> cfg) {
+        List<Node> postOrder = computePostOrder(cfg);
+        if (analysis.isForward()) {
+            Collections.reverse(postOrder);
+        }
+        return new PriorityWorkList<>(postOrder);
+    }
+
+    /**
+     * Computes the post-order of the nodes in given CFG by a depth-first
+     * search from the entry node. Nodes that are unreachable from the entry
+     * are also visited (by following depth-first searches), so that all
+     * nodes of the CFG are included in the resulting list.
+     */
+    static <Node> List<Node> computePostOrder(CFG<Node> cfg) {
+        List<Node> postOrder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+        // each frame of the stack is a node and the iterator
+        // of its successors which remain to be visited
+        Deque<Node> nodeStack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succStack = new ArrayDeque<>();
+        List<Node> roots = new ArrayList<>();
+        roots.add(cfg.getEntry());
+        roots.addAll(cfg.getNodes());
+        for (Node root : roots) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            nodeStack.push(root);
+            succStack.push(cfg.getSuccsOf(root).iterator());
+            while (!nodeStack.isEmpty()) {
+                Iterator<Node> succs = succStack.peek();
+                if (succs.hasNext()) {
+                    Node succ = succs.next();
+                    if (visited.add(succ)) {
+                        nodeStack.push(succ);
+                        succStack.push(cfg.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    postOrder.add(nodeStack.pop());
+                    succStack.pop();
+                }
+            }
+        }
+        return postOrder;
+    }
+
+    /**
+     * Work list which is backed by a bit set over the orders of the nodes.
+     * Adding a node and checking whether a node is in the work list take
+     * constant time, and {@link #poll()} returns the node with the smallest
+     * order in the work list.
+     */
+    static class PriorityWorkList<Node> extends AbstractQueue<Node> {
+
+        /**
+         * The nodes sorted by their orders.
+         */
+        private final List<Node> nodes;
+
+        private final Map<Node, Integer> orders;
+
+        private final BitSet queued;
+
+        /**
+         * Number of nodes in this work list, i.e., the set bits of
+         * {@link #queued}, which is kept as the metrics query it
+         * on every addition.
+         */
+        private int size;
+
+        /**
+         * Creates a work list which initially contains all given nodes,
+         * and the order of each node is its position in the list.
+         */
+        PriorityWorkList(List<Node> nodes) {
+            this.nodes = nodes;
+            this.orders = Maps.newMap(nodes.size());
+            for (int i = 0; i < nodes.size(); ++i) {
+                orders.put(nodes.get(i), i);
+            }
+            this.queued = new BitSet(nodes.size());
+            queued.set(0, nodes.size());
+            size = nodes.size();
+        }
+
+        /**
+         * Adds a node to this work list.
+         *
+         * @return true if the node was not in this work list, otherwise false.
+         */
+        @Override
+        public boolean add(Node node) {
+            return offer(node);
+        }
+
+        @Override
+        public boolean offer(Node node) {
+            int order = orders.get(node);
+            if (queued.get(order)) {
+                return false;
+            }
+            queued.set(order);
+            ++size;
+            return true;
+        }
+
+        @Override
+        public Node poll() {
+            int order = queued.nextSetBit(0);
+            if (order < 0) {
+                return null;
+            }
+            queued.clear(order);
+            --size;
+            return nodes.get(order);
+        }
+
+        @Override
+        public Node peek() {
+            int order = queued.nextSetBit(0);
+            return order < 0 ? null : nodes.get(order);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            return new Iterator<>() {
+
+                private int next = queued.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Node next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Node node = nodes.get(next);
+                    next = queued.nextSetBit(next + 1);
+                    return node;
+                }
+            };
+        }
+    }
+}
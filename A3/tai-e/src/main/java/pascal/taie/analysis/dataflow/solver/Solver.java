@@ -25,6 +25,9 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -46,7 +49,35 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        return makeSolver(analysis, null);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis. Supported kinds are:
+     * <ul>
+     *     <li>{@code worklist} (default): processes nodes in
+     *     first-in-first-out order.</li>
+     *     <li>{@code priority}: processes nodes in reverse post-order
+     *     (post-order for backward analyses) of the CFG.</li>
+     *     <li>{@code wto}: iterates the nested loops of the CFG in
+     *     a weak topological ordering, see {@link WTOSolver}.</li>
+     * </ul>
+     *
+     * @param kind kind of the solver, or null for the default solver
+     * @throws ConfigException if the kind is unknown
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String kind) {
+        if (kind == null || kind.equals("worklist")) {
+            return new WorkListSolver<>(analysis);
+        } else if (kind.equals("priority")) {
+            return new PriorityWorkListSolver<>(analysis);
+        } else if (kind.equals("wto")) {
+            return new WTOSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown data-flow solver: " + kind);
+        }
     }
 
     /**
@@ -56,8 +87,22 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        return solve(cfg, new SolverMetrics());
+    }
+
+    /**
+     * Starts this solver on the given CFG, and records the statistics
+     * of solving in given metrics.
+     *
+     * @param cfg     control-flow graph where the analysis is performed on
+     * @param metrics the metrics to be filled by this solver
+     * @return the analysis result
+     */
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg, SolverMetrics metrics) {
+        metrics.start(cfg);
         DataflowResult<Node, Fact> result = initialize(cfg);
-        doSolve(cfg, result);
+        doSolve(cfg, result, metrics);
+        metrics.finish();
         return result;
     }
 
@@ -80,10 +125,10 @@ public abstract class Solver<Node, Fact> {
         // TODO - finish me
         result.setOutFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
         for (Node node : cfg) {
-//            result.setInFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
             if (node == cfg.getEntry())// || node == cfg.getExit())
                 continue;
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
     }
 
@@ -94,9 +139,9 @@ public abstract class Solver<Node, Fact> {
         result.setInFact(exit, boundaryFact);
 
         for (Node node : cfg.getNodes()) {
-            Fact initialFact = analysis.newInitialFact();
+            Fact initialFact = analysis.newInitialFact(cfg);
             result.setInFact(node, initialFact);
-            Fact initialOutFact = analysis.newInitialFact();
+            Fact initialOutFact = analysis.newInitialFact(cfg);
             result.setOutFact(node, initialOutFact);
         }
     }
@@ -104,15 +149,18 @@ public abstract class Solver<Node, Fact> {
     /**
      * Solves the data-flow problem for given CFG.
      */
-    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                         SolverMetrics metrics) {
         if (analysis.isForward()) {
-            doSolveForward(cfg, result);
+            doSolveForward(cfg, result, metrics);
         } else {
-            doSolveBackward(cfg, result);
+            doSolveBackward(cfg, result, metrics);
         }
     }
 
-    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                           SolverMetrics metrics);
 
-    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                            SolverMetrics metrics);
 }
@@ -0,0 +1,342 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Chaotic-iteration solver which follows the recursive iteration strategy
+ * over a weak topological ordering (WTO) of the CFG, as proposed in
+ * François Bourdoncle, "Efficient chaotic iteration strategies with
+ * widenings", FMPA 1993.
+ * <p>
+ * The WTO is a hierarchical decomposition of the CFG into nested components,
+ * each of which is a loop with a head node. The solver visits the nodes in
+ * the ordering, and iterates each component until its head is stable, so
+ * that the outer nodes are not revisited while an inner loop is changing.
+ * Moreover, a node is only visited when its inputs have changed, so that
+ * stable regions are skipped. If the analysis needs widening
+ * (see {@link DataflowAnalysis#needWidening()}), the facts of the heads
+ * are widened, as every cycle of the CFG passes through a head.
+ */
+class WTOSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WTOSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  SolverMetrics metrics) {
+        new Iteration(cfg, result, metrics).iterate(computeWTO(cfg, true));
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   SolverMetrics metrics) {
+        new Iteration(cfg, result, metrics).iterate(computeWTO(cfg, false));
+    }
+
+    /**
+     * State of iterating the analysis on a CFG.
+     */
+    private class Iteration {
+
+        private final CFG<Node> cfg;
+
+        private final DataflowResult<Node, Fact> result;
+
+        private final SolverMetrics metrics;
+
+        private final boolean forward;
+
+        /**
+         * Nodes whose inputs have changed since they were last visited.
+         */
+        private final Set<Node> pending;
+
+        /**
+         * Nodes which have been transferred, used by in-place solving.
+         */
+        private final Set<Node> transferred;
+
+        /**
+         * Scratch fact of in-place solving, or null if the analysis
+         * is not solved in place.
+         */
+        private final Fact scratch;
+
+        private Iteration(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                          SolverMetrics metrics) {
+            this.cfg = cfg;
+            this.result = result;
+            this.metrics = metrics;
+            this.forward = analysis.isForward();
+            this.pending = Sets.newSet(cfg.getNumberOfNodes());
+            cfg.forEach(pending::add);
+            this.transferred = Sets.newSet(cfg.getNumberOfNodes());
+            this.scratch = analysis.isInPlace() ? analysis.newInitialFact(cfg) : null;
+            metrics.updateWorkListSize(pending.size());
+        }
+
+        private void iterate(List<Component<Node>> components) {
+            for (Component<Node> component : components) {
+                if (component.isLoop()) {
+                    // iterates the component until its head is stable
+                    do {
+                        update(component.head(), true);
+                        iterate(component.body());
+                    } while (pending.contains(component.head()));
+                } else {
+                    update(component.head(), false);
+                }
+            }
+        }
+
+        /**
+         * Meets the inputs of given node and transfers the node,
+         * if any of its inputs have changed.
+         */
+        private void update(Node node, boolean isHead) {
+            if (!pending.remove(node)) {
+                return;
+            }
+            metrics.visitNode();
+            boolean widen = isHead && analysis.needWidening();
+            Fact in = result.getInFact(node);
+            Fact out = result.getOutFact(node);
+            Fact input = forward ? in : out;
+            boolean changed;
+            if (scratch != null) {
+                boolean inputChanged = false;
+                if (widen) {
+                    inputChanged = analysis.meetIntoInPlace(
+                            analysis.widen(input, meetInputs(node)), input);
+                } else {
+                    for (Node source : getSources(node)) {
+                        inputChanged |= analysis.meetIntoInPlace(
+                                getOutput(source), input);
+                    }
+                }
+                changed = (transferred.add(node) || inputChanged) &&
+                        analysis.transferNode(node, in, out, scratch);
+            } else {
+                Fact meet = meetInputs(node);
+                if (widen) {
+                    meet = analysis.widen(input, meet);
+                }
+                if (forward) {
+                    result.setInFact(node, meet);
+                    changed = analysis.transferNode(node, meet, out);
+                } else {
+                    result.setOutFact(node, meet);
+                    changed = analysis.transferNode(node, in, meet);
+                }
+            }
+            if (metrics.transfer(changed)) {
+                for (Node target : getTargets(node)) {
+                    pending.add(target);
+                }
+                metrics.updateWorkListSize(pending.size());
+            }
+        }
+
+        /**
+         * @return a new fact which is the meet of the inputs of given node.
+         */
+        private Fact meetInputs(Node node) {
+            Fact meet = analysis.newInitialFact(cfg);
+            for (Node source : getSources(node)) {
+                analysis.meetInto(getOutput(source), meet);
+            }
+            return meet;
+        }
+
+        /**
+         * @return the nodes whose outputs flow into given node, i.e.,
+         * predecessors (successors in backward analysis) of the node.
+         */
+        private Set<Node> getSources(Node node) {
+            return forward ? cfg.getPredsOf(node) : cfg.getSuccsOf(node);
+        }
+
+        /**
+         * @return the nodes which given node flows into.
+         */
+        private Set<Node> getTargets(Node node) {
+            return forward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+        }
+
+        /**
+         * @return the OUT (IN in backward analysis) fact of given node.
+         */
+        private Fact getOutput(Node node) {
+            return forward ? result.getOutFact(node) : result.getInFact(node);
+        }
+    }
+
+    /**
+     * A component of a weak topological ordering. A component is either
+     * a single node, or a loop consisting of a head and a body, which is
+     * a weak topological ordering of the rest nodes of the loop.
+     *
+     * @param head the node, or the head of the loop
+     * @param body the body of the loop, or empty list for single nodes
+     */
+    record Component<Node>(Node head, List<Component<Node>> body, boolean isLoop) {
+    }
+
+    /**
+     * Computes a weak topological ordering of given CFG, following
+     * the direction of given analysis, i.e., from the entry along
+     * the edges (from the exit against the edges in backward analysis).
+     * <p>
+     * The ordering is computed by hierarchical decomposition: the strongly
+     * connected components of the CFG are ordered topologically, and each
+     * non-trivial component becomes a loop, whose head is the node of the
+     * component first visited by depth-first search, and whose body is
+     * decomposed recursively after removing the head.
+     * Nodes that are unreachable from the entry (exit) are also included.
+     */
+    static <Node> List<Component<Node>> computeWTO(CFG<Node> cfg, boolean forward) {
+        Function<Node, Set<Node>> succsOf = forward ? cfg::getSuccsOf : cfg::getPredsOf;
+        List<Node> roots = new ArrayList<>(cfg.getNumberOfNodes() + 1);
+        roots.add(forward ? cfg.getEntry() : cfg.getExit());
+        roots.addAll(cfg.getNodes());
+        return decompose(roots, cfg.getNodes(), succsOf);
+    }
+
+    /**
+     * Decomposes the subgraph induced by given nodes into components.
+     *
+     * @param roots   the nodes where the depth-first searches start
+     * @param scope   the nodes of the subgraph
+     * @param succsOf the function of successors in the graph
+     */
+    private static <Node> List<Component<Node>> decompose(
+            List<Node> roots, Set<Node> scope, Function<Node, Set<Node>> succsOf) {
+        List<Component<Node>> components = new ArrayList<>();
+        for (List<Node> scc : computeSCCs(roots, scope, succsOf)) {
+            Node head = scc.get(0);
+            if (scc.size() == 1 && !succsOf.apply(head).contains(head)) {
+                components.add(new Component<>(head, List.of(), false));
+                continue;
+            }
+            Set<Node> bodyScope = Sets.newSet(scc.size());
+            bodyScope.addAll(scc.subList(1, scc.size()));
+            List<Node> bodyRoots = new ArrayList<>(succsOf.apply(head));
+            bodyRoots.addAll(scc);
+            components.add(new Component<>(head,
+                    decompose(bodyRoots, bodyScope, succsOf), true));
+        }
+        return components;
+    }
+
+    /**
+     * Computes the strongly connected components of the subgraph induced
+     * by given nodes, by an iterative version of Tarjan's algorithm.
+     *
+     * @return the components in topological order, and the first node of
+     * each component is the one first visited by depth-first search.
+     */
+    private static <Node> List<List<Node>> computeSCCs(
+            List<Node> roots, Set<Node> scope, Function<Node, Set<Node>> succsOf) {
+        List<List<Node>> sccs = new ArrayList<>();
+        Map<Node, Integer> indexes = Maps.newMap(scope.size());
+        Map<Node, Integer> lowLinks = Maps.newMap(scope.size());
+        Deque<Node> sccStack = new ArrayDeque<>();
+        Set<Node> onSCCStack = Sets.newSet(scope.size());
+        // each frame of the stack is a node and the iterator
+        // of its successors which remain to be visited
+        Deque<Node> nodeStack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succStack = new ArrayDeque<>();
+        for (Node root : roots) {
+            if (!scope.contains(root) || indexes.containsKey(root)) {
+                continue;
+            }
+            indexes.put(root, indexes.size());
+            lowLinks.put(root, indexes.get(root));
+            sccStack.push(root);
+            onSCCStack.add(root);
+            nodeStack.push(root);
+            succStack.push(succsOf.apply(root).iterator());
+            while (!nodeStack.isEmpty()) {
+                Node node = nodeStack.peek();
+                Iterator<Node> succs = succStack.peek();
+                if (succs.hasNext()) {
+                    Node succ = succs.next();
+                    if (!scope.contains(succ)) {
+                        continue;
+                    }
+                    if (!indexes.containsKey(succ)) {
+                        indexes.put(succ, indexes.size());
+                        lowLinks.put(succ, indexes.get(succ));
+                        sccStack.push(succ);
+                        onSCCStack.add(succ);
+                        nodeStack.push(succ);
+                        succStack.push(succsOf.apply(succ).iterator());
+                    } else if (onSCCStack.contains(succ)) {
+                        lowLinks.put(node, Math.min(
+                                lowLinks.get(node), indexes.get(succ)));
+                    }
+                } else {
+                    nodeStack.pop();
+                    succStack.pop();
+                    int lowLink = lowLinks.get(node);
+                    if (!nodeStack.isEmpty()) {
+                        Node parent = nodeStack.peek();
+                        lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLink));
+                    }
+                    if (lowLink == indexes.get(node)) {
+                        List<Node> scc = new ArrayList<>();
+                        Node member;
+                        do {
+                            member = sccStack.pop();
+                            onSCCStack.remove(member);
+                            scc.add(member);
+                        } while (member != node);
+                        Collections.reverse(scc);
+                        sccs.add(scc);
+                    }
+                }
+            }
+        }
+        // Tarjan's algorithm finds the components in reverse topological order
+        Collections.reverse(sccs);
+        return sccs;
+    }
+}
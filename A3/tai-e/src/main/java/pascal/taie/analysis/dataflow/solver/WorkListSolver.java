@@ -25,8 +25,11 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
 
-import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -34,16 +37,34 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         super(analysis);
     }
 
+    /**
+     * Creates the work list for solving the analysis on given CFG.
+     * The work list initially contains all nodes of the CFG, and adding
+     * a node which is already in the work list has no effect.
+     * By default, the nodes are processed in first-in-first-out order.
+     */
+    protected Queue<Node> newWorkList(CFG<Node> cfg) {
+        Queue<Node> workList = new SetQueue<>();
+        for (Node node : cfg) {
+            workList.add(node);
+        }
+        return workList;
+    }
+
     @Override
-    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  SolverMetrics metrics) {
         // TODO - finish me
-        var workList = new LinkedList<Node>();
-        for (Node node : cfg) {
-            workList.addLast(node);
+        if (analysis.isInPlace()) {
+            doSolveInPlace(cfg, result, metrics);
+            return;
         }
+        Queue<Node> workList = newWorkList(cfg);
+        metrics.updateWorkListSize(workList.size());
         while (!workList.isEmpty()) {
-            Node node = workList.removeFirst();
-            var meet = analysis.newInitialFact(); // result.getInFact(node);
+            Node node = workList.poll();
+            metrics.visitNode();
+            var meet = analysis.newInitialFact(cfg); // result.getInFact(node);
             for (Node pred : cfg.getPredsOf(node)) {
                 Fact outFact = result.getOutFact(pred);
                 analysis.meetInto(outFact, meet);
@@ -51,28 +72,28 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
             result.setInFact(node, meet);
             var out = result.getOutFact(node);
 
-            if (analysis.transferNode(node, meet, out)) {
-                var succsOf = cfg.getSuccsOf(node);
-                for (Node suc : succsOf) {
-                    if (!workList.contains(suc)) {
-                        workList.addLast(suc);
-                    }
-                }
+            if (metrics.transfer(analysis.transferNode(node, meet, out))) {
+                workList.addAll(cfg.getSuccsOf(node));
+                metrics.updateWorkListSize(workList.size());
             }
             result.setOutFact(node, out);
         }
     }
 
     @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  SolverMetrics metrics) {
         // TODO - finish me
-        var workList = new LinkedList<Node>();
-        for (Node node : cfg) {
-            workList.addLast(node);
+        if (analysis.isInPlace()) {
+            doSolveInPlace(cfg, result, metrics);
+            return;
         }
+        Queue<Node> workList = newWorkList(cfg);
+        metrics.updateWorkListSize(workList.size());
         while (!workList.isEmpty()) {
-            Node node = workList.removeFirst();
-            var meet = analysis.newInitialFact(); // result.getInFact(node);
+            Node node = workList.poll();
+            metrics.visitNode();
+            var meet = analysis.newInitialFact(cfg); // result.getInFact(node);
             for (Node suc : cfg.getSuccsOf(node)) {
                 Fact outFact = result.getInFact(suc) ;
                 analysis.meetInto(outFact, meet);
@@ -80,15 +101,48 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
             result.setOutFact(node, meet);
             var in = result.getInFact(node);
 
-            if (analysis.transferNode(node, in, meet)) {
-                var predsOf = cfg.getPredsOf(node);
-                for (Node suc : predsOf) {
-                    if (!workList.contains(suc)) {
-                        workList.addLast(suc);
-                    }
-                }
+            if (metrics.transfer(analysis.transferNode(node, in, meet))) {
+                workList.addAll(cfg.getPredsOf(node));
+                metrics.updateWorkListSize(workList.size());
             }
             result.setInFact(node, in);
         }
     }
+
+    /**
+     * Solves the analysis in place (see {@link DataflowAnalysis#isInPlace()}).
+     * The IN and OUT facts of each node are the ones created by initialization,
+     * and a node is transferred only when it is visited the first time or
+     * when the meet changes its IN (OUT in backward analysis) fact.
+     */
+    private void doSolveInPlace(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                SolverMetrics metrics) {
+        boolean forward = analysis.isForward();
+        Fact scratch = analysis.newInitialFact(cfg);
+        Set<Node> transferred = Sets.newSet(cfg.getNumberOfNodes());
+        Queue<Node> workList = newWorkList(cfg);
+        metrics.updateWorkListSize(workList.size());
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            metrics.visitNode();
+            Fact in = result.getInFact(node);
+            Fact out = result.getOutFact(node);
+            boolean changed = false;
+            if (forward) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    changed |= analysis.meetIntoInPlace(result.getOutFact(pred), in);
+                }
+            } else {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    changed |= analysis.meetIntoInPlace(result.getInFact(succ), out);
+                }
+            }
+            if ((transferred.add(node) || changed) && metrics.transfer(
+                    analysis.transferNode(node, in, out, scratch))) {
+                workList.addAll(forward ?
+                        cfg.getSuccsOf(node) : cfg.getPredsOf(node));
+                metrics.updateWorkListSize(workList.size());
+            }
+        }
+    }
 }
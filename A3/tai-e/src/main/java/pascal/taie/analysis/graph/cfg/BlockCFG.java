@@ -0,0 +1,192 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A view of a {@link CFG} whose nodes are the basic blocks of the
+ * viewed CFG. The entry and the exit of the viewed CFG always form
+ * blocks by themselves, which are the entry and the exit of this CFG.
+ *
+ * @param <N> type of the nodes of the viewed CFG.
+ */
+public class BlockCFG<N> extends AbstractCFG<BasicBlock<N>> {
+
+    private final CFG<N> cfg;
+
+    private final Predicate<Edge<N>> isBoundary;
+
+    private final List<BasicBlock<N>> blocks = new ArrayList<>();
+
+    /**
+     * The block containing each node, and the position of the node
+     * in the block.
+     */
+    private final Map<N, Location<N>> locations;
+
+    public BlockCFG(CFG<N> cfg) {
+        this(cfg, edge -> false);
+    }
+
+    /**
+     * @param isBoundary decides whether given edge must connect two
+     *                   different blocks even if it is the only out edge
+     *                   of its source and the only in edge of its target.
+     */
+    public BlockCFG(CFG<N> cfg, Predicate<Edge<N>> isBoundary) {
+        super(cfg.getIR());
+        this.cfg = cfg;
+        this.isBoundary = isBoundary;
+        this.locations = Maps.newMap(cfg.getNumberOfNodes());
+        buildBlocks();
+        buildEdges();
+        setEntry(getBlockOf(cfg.getEntry()));
+        setExit(getBlockOf(cfg.getExit()));
+    }
+
+    private void buildBlocks() {
+        for (N node : cfg) {
+            if (isBlockHead(node)) {
+                addBlock(node);
+            }
+        }
+        // nodes on isolated cycles have no block head
+        for (N node : cfg) {
+            if (!locations.containsKey(node)) {
+                addBlock(node);
+            }
+        }
+    }
+
+    private boolean isBlockHead(N node) {
+        if (cfg.isEntry(node) || cfg.isExit(node) || cfg.getInDegreeOf(node) != 1) {
+            return true;
+        }
+        Edge<N> inEdge = cfg.getInEdgesOf(node).iterator().next();
+        N pred = inEdge.getSource();
+        return cfg.isEntry(pred) || cfg.isExit(pred) ||
+                cfg.getOutDegreeOf(pred) != 1 ||
+                isBoundary.test(inEdge);
+    }
+
+    private void addBlock(N head) {
+        List<N> nodes = new ArrayList<>();
+        N node = head;
+        while (true) {
+            nodes.add(node);
+            if (cfg.isEntry(node) || cfg.isExit(node) ||
+                    cfg.getOutDegreeOf(node) != 1) {
+                break;
+            }
+            N succ = cfg.getSuccsOf(node).iterator().next();
+            if (succ == head || isBlockHead(succ)) {
+                break;
+            }
+            node = succ;
+        }
+        BasicBlock<N> block = new BasicBlock<>(cfg, blocks.size(), nodes);
+        blocks.add(block);
+        for (int i = 0; i < nodes.size(); ++i) {
+            locations.put(nodes.get(i), new Location<>(block, i));
+        }
+        addNode(block);
+    }
+
+    private void buildEdges() {
+        for (BasicBlock<N> block : blocks) {
+            for (Edge<N> edge : cfg.getOutEdgesOf(block.getLastNode())) {
+                addEdge(toBlockEdge(block, getBlockOf(edge.getTarget()), edge));
+            }
+        }
+    }
+
+    private static <N> Edge<BasicBlock<N>> toBlockEdge(
+            BasicBlock<N> source, BasicBlock<N> target, Edge<N> edge) {
+        if (edge.isSwitchCase()) {
+            return new SwitchCaseEdge<>(source, target, edge.getCaseValue());
+        } else if (edge.isExceptional()) {
+            return new ExceptionalEdge<>(edge.getKind(), source, target,
+                    edge.getExceptions());
+        } else {
+            return new Edge<>(edge.getKind(), source, target);
+        }
+    }
+
+    /**
+     * @return the CFG viewed by this block CFG.
+     */
+    public CFG<N> getBaseCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the basic blocks in this CFG, ordered by their indexes.
+     */
+    public List<BasicBlock<N>> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    /**
+     * @return the basic block containing given node.
+     */
+    public BasicBlock<N> getBlockOf(N node) {
+        Location<N> location = locations.get(node);
+        return location != null ? location.block() : null;
+    }
+
+    /**
+     * @return the position of given node in the node list of its block,
+     * or -1 if the node is not in this CFG.
+     */
+    public int getPositionOf(N node) {
+        Location<N> location = locations.get(node);
+        return location != null ? location.position() : -1;
+    }
+
+    /**
+     * @return the edge of the viewed CFG which corresponds to given block edge.
+     */
+    public static <N> Edge<N> getBaseEdge(Edge<BasicBlock<N>> edge) {
+        N source = edge.getSource().getLastNode();
+        N target = edge.getTarget().getFirstNode();
+        for (Edge<N> baseEdge : edge.getSource().getCFG().getOutEdgesOf(source)) {
+            if (baseEdge.getTarget() == target &&
+                    baseEdge.getKind() == edge.getKind() &&
+                    (!edge.isSwitchCase() ||
+                            baseEdge.getCaseValue() == edge.getCaseValue())) {
+                return baseEdge;
+            }
+        }
+        throw new IllegalArgumentException(edge + " is not a block edge");
+    }
+
+    private record Location<N>(BasicBlock<N> block, int position) {
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Table of the variables used and defined by each statement of an IR.
+ * The variables are represented by their indexes in the IR
+ * (see {@link IR#getVar(int)}), and the table is indexed by
+ * {@link Stmt#getIndex()}, so that querying the table does not allocate,
+ * unlike {@link Stmt#getUses()} and {@link Stmt#getDef()}.
+ * <p>
+ * The table of an IR is computed once and cached in the IR,
+ * see {@link #of(IR)}.
+ */
+public class UseDefTable {
+
+    private static final String KEY = UseDefTable.class.getName();
+
+    private static final int[] NO_USES = new int[0];
+
+    private final IR ir;
+
+    /**
+     * Indexes of the variables used by each statement, without duplicates.
+     */
+    private final int[][] uses;
+
+    /**
+     * Index of the variable defined by each statement, or -1 if
+     * the statement does not define a variable.
+     */
+    private final int[] defs;
+
+    private UseDefTable(IR ir) {
+        this.ir = ir;
+        List<Stmt> stmts = ir.getStmts();
+        uses = new int[stmts.size()][];
+        defs = new int[stmts.size()];
+        int[] buffer = new int[8];
+        for (Stmt stmt : stmts) {
+            int nUses = 0;
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var) {
+                    int index = var.getIndex();
+                    if (!contains(buffer, nUses, index)) {
+                        if (nUses == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, nUses * 2);
+                        }
+                        buffer[nUses++] = index;
+                    }
+                }
+            }
+            uses[stmt.getIndex()] = nUses == 0 ? NO_USES :
+                    Arrays.copyOf(buffer, nUses);
+            Optional<LValue> def = stmt.getDef();
+            defs[stmt.getIndex()] = def.isPresent() && def.get() instanceof Var var ?
+                    var.getIndex() : -1;
+        }
+    }
+
+    private static boolean contains(int[] array, int length, int value) {
+        for (int i = 0; i < length; ++i) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the use-def table of given IR, which is computed
+     * when it is queried the first time.
+     */
+    public static UseDefTable of(IR ir) {
+        return ir.getResult(KEY, () -> new UseDefTable(ir));
+    }
+
+    /**
+     * @return the IR of this table.
+     */
+    public IR getIR() {
+        return ir;
+    }
+
+    /**
+     * @return true if given statement belongs to the IR of this table.
+     * Statements that do not belong to the IR, e.g., the entry and
+     * exit nodes of CFGs, use and define no variables in this table.
+     */
+    public boolean contains(Stmt stmt) {
+        int index = stmt.getIndex();
+        return 0 <= index && index < uses.length && ir.getStmt(index) == stmt;
+    }
+
+    /**
+     * @return indexes of the variables used by given statement.
+     * The returned array is shared and must not be modified.
+     */
+    public int[] getUses(Stmt stmt) {
+        return contains(stmt) ? uses[stmt.getIndex()] : NO_USES;
+    }
+
+    /**
+     * @return index of the variable defined by given statement,
+     * or -1 if the statement does not define a variable.
+     */
+    public int getDef(Stmt stmt) {
+        return contains(stmt) ? defs[stmt.getIndex()] : -1;
+    }
+
+    /**
+     * @return the variable of given index in the IR of this table.
+     */
+    public Var getVar(int index) {
+        return ir.getVar(index);
+    }
+}
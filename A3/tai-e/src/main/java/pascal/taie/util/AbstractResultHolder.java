@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Default implementation of {@link ResultHolder}.
+ * <p>
+ * The results are kept in a concurrent map, so that method analyses
+ * which run in parallel can store their results into the IRs and read
+ * the results stored by other analyses without further synchronization.
+ * As the map does not accept null results, storing null removes the result.
+ */
+public abstract class AbstractResultHolder implements ResultHolder {
+
+    private final Map<String, Object> results = Maps.newConcurrentMap();
+
+    @Override
+    public <R> void storeResult(String key, R result) {
+        if (result != null) {
+            results.put(key, result);
+        } else {
+            results.remove(key);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key) {
+        return (R) results.get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key, R defaultResult) {
+        return (R) results.getOrDefault(key, defaultResult);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key, Supplier<R> supplier) {
+        // not computeIfAbsent(), which forbids the supplier
+        // to query other results of this holder
+        Object result = results.get(key);
+        if (result == null) {
+            R newResult = supplier.get();
+            result = results.putIfAbsent(key, newResult);
+            if (result == null) {
+                return newResult;
+            }
+        }
+        return (R) result;
+    }
+
+    @Override
+    public Collection<String> getKeys() {
+        return results.keySet();
+    }
+
+    @Override
+    public void clearResult(String key) {
+        results.remove(key);
+    }
+
+    @Override
+    public void clearAll() {
+        results.clear();
+    }
+}
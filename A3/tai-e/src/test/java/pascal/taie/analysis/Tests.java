@@ -26,10 +26,14 @@ import org.junit.Assert;
 import pascal.taie.Main;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -95,6 +99,28 @@ public final class Tests {
         }
     }
 
+    /**
+     * Builds the control-flow graphs of the methods for a specific test
+     * case, without running other analyses, so that tests can run
+     * (and compare) analyses on the IRs directly.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @return the IRs of the non-abstract methods in application classes.
+     */
+    public static List<IR> buildIRs(String main, String classPath) {
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", main,
+                "-a", CFGBuilder.ID});
+        return World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .toList();
+    }
+
     public static void testPTA(String dir, String main, String... opts) {
         doTestPTA("pta", dir, main, opts);
     }
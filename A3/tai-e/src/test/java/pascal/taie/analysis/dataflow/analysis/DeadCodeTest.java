@@ -22,8 +22,32 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import org.junit.Assert;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class DeadCodeTest {
 
@@ -34,6 +58,74 @@ public class DeadCodeTest {
                 "-a", "constprop=edge-refine:false");
     }
 
+    /**
+     * Compares the results of {@link DeadCodeDetection} with the results
+     * of a straightforward recursive traversal of the CFG.
+     */
+    void testAgainstDFS(String inputClass) {
+        ConstantPropagation constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID));
+        LiveVariableAnalysis livevar = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID));
+        DeadCodeDetection deadcode = new DeadCodeDetection(
+                new AnalysisConfig(DeadCodeDetection.ID));
+        for (IR ir : Tests.buildIRs(inputClass,
+                "src/test/resources/dataflow/deadcode/")) {
+            ir.storeResult(ConstantPropagation.ID, constprop.analyze(ir));
+            ir.storeResult(LiveVariableAnalysis.ID, livevar.analyze(ir));
+            Assert.assertEquals("dead code of " + ir.getMethod(),
+                    new ArrayList<>(findDeadCode(ir)),
+                    new ArrayList<>(deadcode.analyze(ir)));
+        }
+    }
+
+    private static Set<Stmt> findDeadCode(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        NodeResult<Stmt, CPFact> constants = ir.getResult(ConstantPropagation.ID);
+        NodeResult<Stmt, SetFact<Var>> liveVars = ir.getResult(LiveVariableAnalysis.ID);
+        Set<Stmt> reached = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        traverse(cfg, cfg.getEntry(), constants, reached);
+        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        for (Stmt stmt : ir) {
+            if (!reached.contains(stmt) || isDeadAssignment(stmt, liveVars)) {
+                deadCode.add(stmt);
+            }
+        }
+        return deadCode;
+    }
+
+    private static void traverse(CFG<Stmt> cfg, Stmt stmt,
+                                 NodeResult<Stmt, CPFact> constants,
+                                 Set<Stmt> reached) {
+        if (!reached.add(stmt)) {
+            return;
+        }
+        Value condition = ConstantPropagation.evaluateCondition(
+                stmt, constants.getInFact(stmt));
+        for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+            if (!condition.isConstant() || ConstantPropagation.isTaken(
+                    edge, condition.getConstant())) {
+                traverse(cfg, edge.getTarget(), constants, reached);
+            }
+        }
+    }
+
+    private static boolean isDeadAssignment(
+            Stmt stmt, NodeResult<Stmt, SetFact<Var>> liveVars) {
+        return stmt.getDef().orElse(null) instanceof Var var
+                && stmt.getUses().stream().allMatch(DeadCodeTest::hasNoSideEffect)
+                && !liveVars.getOutFact(stmt).contains(var);
+    }
+
+    private static boolean hasNoSideEffect(RValue rvalue) {
+        if (rvalue instanceof ArithmeticExp arithmeticExp) {
+            ArithmeticExp.Op op = arithmeticExp.getOperator();
+            return op != ArithmeticExp.Op.DIV && op != ArithmeticExp.Op.REM;
+        }
+        return !(rvalue instanceof NewExp || rvalue instanceof CastExp ||
+                rvalue instanceof FieldAccess || rvalue instanceof ArrayAccess);
+    }
+
     @Test
     public void testControlFlowUnreachable() {
         testDCD("ControlFlowUnreachable");
@@ -58,4 +150,29 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testDFSControlFlowUnreachable() {
+        testAgainstDFS("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testDFSUnreachableIfBranch() {
+        testAgainstDFS("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testDFSUnreachableSwitchBranch() {
+        testAgainstDFS("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testDFSDeadAssignment() {
+        testAgainstDFS("DeadAssignment");
+    }
+
+    @Test
+    public void testDFSLoops() {
+        testAgainstDFS("Loops");
+    }
 }
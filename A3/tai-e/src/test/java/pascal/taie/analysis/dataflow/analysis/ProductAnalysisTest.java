@@ -0,0 +1,170 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * Checks that solving a {@link ProductAnalysis} computes the same
+ * results as solving its component analyses separately.
+ */
+public class ProductAnalysisTest {
+
+    void testProduct(String main, String classPath, boolean inPlace) {
+        ConstantPropagation constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID));
+        AssignedVariables assigned = new AssignedVariables(inPlace);
+        ProductAnalysis<Stmt> product = new ProductAnalysis<>(
+                List.of(constprop, assigned));
+        Assert.assertEquals(inPlace, product.isInPlace());
+        for (IR ir : Tests.buildIRs(main, classPath)) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            for (String kind : List.of("worklist", "priority", "wto")) {
+                NodeResult<Stmt, ProductFact> result =
+                        Solver.makeSolver(product, kind).solve(cfg);
+                compare(ir, kind, Solver.makeSolver(constprop, kind).solve(cfg),
+                        ProductAnalysis.<Stmt, CPFact>project(result, 0));
+                compare(ir, kind, Solver.makeSolver(assigned, kind).solve(cfg),
+                        ProductAnalysis.<Stmt, SetFact<Var>>project(result, 1));
+            }
+        }
+    }
+
+    private static <Fact> void compare(IR ir, String kind,
+                                       NodeResult<Stmt, Fact> expected,
+                                       NodeResult<Stmt, Fact> actual) {
+        for (Stmt stmt : ir) {
+            String message = String.format("%s of %s at %s",
+                    kind, ir.getMethod(), stmt);
+            Assert.assertEquals("IN " + message,
+                    expected.getInFact(stmt), actual.getInFact(stmt));
+            Assert.assertEquals("OUT " + message,
+                    expected.getOutFact(stmt), actual.getOutFact(stmt));
+        }
+    }
+
+    /**
+     * Forward analysis which computes the variables that may have been
+     * assigned before each program point.
+     */
+    private static class AssignedVariables
+            implements DataflowAnalysis<Stmt, SetFact<Var>> {
+
+        private final boolean inPlace;
+
+        private AssignedVariables(boolean inPlace) {
+            this.inPlace = inPlace;
+        }
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
+            return new SetFact<>();
+        }
+
+        @Override
+        public SetFact<Var> newInitialFact() {
+            return new SetFact<>();
+        }
+
+        @Override
+        public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
+            target.union(fact);
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+            boolean changed = out.union(in);
+            if (stmt.getDef().orElse(null) instanceof Var var) {
+                changed |= out.add(var);
+            }
+            return changed;
+        }
+
+        @Override
+        public boolean isInPlace() {
+            return inPlace;
+        }
+
+        @Override
+        public boolean meetIntoInPlace(SetFact<Var> fact, SetFact<Var> target) {
+            return target.union(fact);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Stmt> edge) {
+            return false;
+        }
+
+        @Override
+        public SetFact<Var> transferEdge(Edge<Stmt> edge, SetFact<Var> nodeFact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    public void testInPlaceLoops() {
+        testProduct("Loops", "src/test/resources/dataflow/deadcode/", true);
+    }
+
+    @Test
+    public void testInPlaceUnreachableSwitchBranch() {
+        testProduct("UnreachableSwitchBranch", "src/test/resources/dataflow/deadcode/", true);
+    }
+
+    @Test
+    public void testLoops() {
+        testProduct("Loops", "src/test/resources/dataflow/deadcode/", false);
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        testProduct("UnreachableSwitchBranch", "src/test/resources/dataflow/deadcode/", false);
+    }
+
+    @Test
+    public void testNonIntBranch() {
+        testProduct("NonIntBranch", "src/test/resources/dataflow/constprop/", false);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+/**
+ * Compares the results of sparse conditional constant propagation
+ * with the results of the dense data-flow solver.
+ */
+public class SparseConstantPropagationTest {
+
+    /**
+     * Dense constant propagation which evaluates binary expressions over
+     * non-int operands to NAC, as the sparse engine does.
+     */
+    private static class NonIntAsNAC extends ConstantPropagation {
+
+        private NonIntAsNAC() {
+            super(new AnalysisConfig(ConstantPropagation.ID));
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+            if (stmt instanceof DefinitionStmt<?, ?> defStmt
+                    && defStmt.getLValue() instanceof Var var
+                    && defStmt.getRValue() instanceof BinaryExp biExp
+                    && (!canHoldInt(biExp.getOperand1())
+                    || !canHoldInt(biExp.getOperand2()))) {
+                CPFact oldOut = out.copy();
+                super.transferNode(stmt, in, out);
+                out.update(var, Value.getNAC());
+                return !out.equals(oldOut);
+            }
+            return super.transferNode(stmt, in, out);
+        }
+    }
+
+    /**
+     * Checks that the sparse engine reaches exactly the statements which are
+     * reachable via the edges not pruned by its constant branch conditions,
+     * and that its results are at least as precise as the dense results.
+     * If no edge is pruned, the results must be equal.
+     */
+    void testSparse(String main, String classPath) {
+        ConstantPropagation dense = new NonIntAsNAC();
+        for (IR ir : Tests.buildIRs(main, classPath)) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            NodeResult<Stmt, CPFact> denseResult = dense.analyze(ir);
+            SparseConstantPropagation sparse = new SparseConstantPropagation(cfg);
+            NodeResult<Stmt, CPFact> sparseResult = sparse.solve();
+            BitSet feasible = new BitSet();
+            boolean pruned = false;
+            Deque<Stmt> stack = new ArrayDeque<>();
+            stack.push(cfg.getEntry());
+            while (!stack.isEmpty()) {
+                Stmt stmt = stack.pop();
+                if (feasible.get(stmt.getIndex())) {
+                    continue;
+                }
+                feasible.set(stmt.getIndex());
+                Value condition = ConstantPropagation.evaluateCondition(
+                        stmt, sparseResult.getInFact(stmt));
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                    if (condition.isConstant() && !ConstantPropagation
+                            .isTaken(edge, condition.getConstant())) {
+                        pruned = true;
+                    } else {
+                        stack.push(edge.getTarget());
+                    }
+                }
+            }
+            for (Stmt stmt : cfg) {
+                Assert.assertEquals("reachability of " + stmt + " in " + ir.getMethod(),
+                        feasible.get(stmt.getIndex()), sparse.isReachable(stmt));
+                if (!sparse.isReachable(stmt)) {
+                    pruned = true;
+                }
+            }
+            for (Stmt stmt : cfg) {
+                compare(ir, stmt, "IN", denseResult.getInFact(stmt),
+                        sparseResult.getInFact(stmt), pruned);
+                compare(ir, stmt, "OUT", denseResult.getOutFact(stmt),
+                        sparseResult.getOutFact(stmt), pruned);
+            }
+        }
+    }
+
+    private static void compare(IR ir, Stmt stmt, String point,
+                                CPFact dense, CPFact sparse, boolean pruned) {
+        for (Var var : ir.getVars()) {
+            Value denseValue = dense.get(var);
+            Value sparseValue = sparse.get(var);
+            String message = String.format("%s of %s at %s %s",
+                    var, ir.getMethod(), point, stmt);
+            if (pruned) {
+                Assert.assertTrue(message + ": " + sparseValue +
+                                " is less precise than " + denseValue,
+                        sparseValue.isUndef() || denseValue.isNAC()
+                                || sparseValue.equals(denseValue));
+            } else {
+                Assert.assertEquals(message, denseValue, sparseValue);
+            }
+        }
+    }
+
+    @Test
+    public void testControlFlowUnreachable() {
+        testSparse("ControlFlowUnreachable", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testUnreachableIfBranch() {
+        testSparse("UnreachableIfBranch", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        testSparse("UnreachableSwitchBranch", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testDeadAssignment() {
+        testSparse("DeadAssignment", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testLoops() {
+        testSparse("Loops", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testNonIntBranch() {
+        testSparse("NonIntBranch", "src/test/resources/dataflow/constprop/");
+    }
+}
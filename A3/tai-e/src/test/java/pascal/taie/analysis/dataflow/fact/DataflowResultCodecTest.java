@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that the data-flow results read by {@link DataflowResultReader}
+ * equal the results written by {@link DataflowResultWriter}.
+ */
+public class DataflowResultCodecTest {
+
+    void testRoundTrip(String main, String classPath) throws IOException {
+        List<AbstractDataflowAnalysis<Stmt, ?>> analyses = List.of(
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID)),
+                new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID)));
+        List<IR> irs = Tests.buildIRs(main, classPath);
+        List<NodeResult<Stmt, ?>> results = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataflowResultWriter writer = new DataflowResultWriter(bytes)) {
+            for (IR ir : irs) {
+                for (AbstractDataflowAnalysis<Stmt, ?> analysis : analyses) {
+                    NodeResult<Stmt, ?> result = analysis.analyze(ir);
+                    results.add(result);
+                    write(writer, ir, analysis, result);
+                }
+            }
+        }
+        try (DataflowResultReader reader = new DataflowResultReader(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            int i = 0;
+            for (IR ir : irs) {
+                for (AbstractDataflowAnalysis<Stmt, ?> analysis : analyses) {
+                    Assert.assertTrue(reader.next());
+                    Assert.assertEquals(ir.getMethod().toString(), reader.getMethod());
+                    Assert.assertEquals(analysis.getId(), reader.getAnalysis());
+                    NodeResult<Stmt, ?> expected = results.get(i++);
+                    NodeResult<Stmt, ?> actual = reader.read(ir, analysis.getFactCodec());
+                    for (Stmt stmt : ir) {
+                        String message = String.format("%s of %s at %s",
+                                analysis.getId(), ir.getMethod(), stmt);
+                        Assert.assertEquals("IN " + message,
+                                expected.getInFact(stmt), actual.getInFact(stmt));
+                        Assert.assertEquals("OUT " + message,
+                                expected.getOutFact(stmt), actual.getOutFact(stmt));
+                    }
+                }
+            }
+            Assert.assertFalse(reader.next());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Fact> void write(DataflowResultWriter writer, IR ir,
+                                     AbstractDataflowAnalysis<Stmt, Fact> analysis,
+                                     NodeResult<Stmt, ?> result) throws IOException {
+        writer.write(ir, analysis.getId(), (NodeResult<Stmt, Fact>) result,
+                analysis.getFactCodec());
+    }
+
+    @Test
+    public void testControlFlowUnreachable() throws IOException {
+        testRoundTrip("ControlFlowUnreachable", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testUnreachableIfBranch() throws IOException {
+        testRoundTrip("UnreachableIfBranch", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() throws IOException {
+        testRoundTrip("UnreachableSwitchBranch", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testDeadAssignment() throws IOException {
+        testRoundTrip("DeadAssignment", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testLoops() throws IOException {
+        testRoundTrip("Loops", "src/test/resources/dataflow/deadcode/");
+    }
+
+    @Test
+    public void testNonIntBranch() throws IOException {
+        testRoundTrip("NonIntBranch", "src/test/resources/dataflow/constprop/");
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Checks that all kinds of solvers compute the same results as
+ * the default work-list solver.
+ */
+public class SolverTest {
+
+    void testSolver(String main, String classPath, String kind) {
+        List<IR> irs = Tests.buildIRs(main, classPath);
+        compare(irs, kind, ConstantPropagation::new, ConstantPropagation.ID);
+        compare(irs, kind, LiveVariableAnalysis::new, LiveVariableAnalysis.ID);
+    }
+
+    private static void compare(
+            List<IR> irs, String kind,
+            Function<AnalysisConfig, AbstractDataflowAnalysis<Stmt, ?>> factory,
+            String id) {
+        AbstractDataflowAnalysis<Stmt, ?> expected = factory.apply(
+                new AnalysisConfig(id, "solver", "worklist"));
+        AbstractDataflowAnalysis<Stmt, ?> actual = factory.apply(
+                new AnalysisConfig(id, "solver", kind));
+        for (IR ir : irs) {
+            NodeResult<Stmt, ?> expectedResult = expected.analyze(ir);
+            NodeResult<Stmt, ?> actualResult = actual.analyze(ir);
+            for (Stmt stmt : ir) {
+                String message = String.format("%s (%s) of %s at %s",
+                        id, kind, ir.getMethod(), stmt);
+                Assert.assertEquals("IN " + message,
+                        expectedResult.getInFact(stmt), actualResult.getInFact(stmt));
+                Assert.assertEquals("OUT " + message,
+                        expectedResult.getOutFact(stmt), actualResult.getOutFact(stmt));
+            }
+        }
+    }
+
+    @Test
+    public void testPriorityControlFlowUnreachable() {
+        testSolver("ControlFlowUnreachable", "src/test/resources/dataflow/deadcode/", "priority");
+    }
+
+    @Test
+    public void testPriorityUnreachableSwitchBranch() {
+        testSolver("UnreachableSwitchBranch", "src/test/resources/dataflow/deadcode/", "priority");
+    }
+
+    @Test
+    public void testPriorityLoops() {
+        testSolver("Loops", "src/test/resources/dataflow/deadcode/", "priority");
+    }
+
+    @Test
+    public void testPriorityNonIntBranch() {
+        testSolver("NonIntBranch", "src/test/resources/dataflow/constprop/", "priority");
+    }
+
+    @Test
+    public void testWTOControlFlowUnreachable() {
+        testSolver("ControlFlowUnreachable", "src/test/resources/dataflow/deadcode/", "wto");
+    }
+
+    @Test
+    public void testWTOUnreachableSwitchBranch() {
+        testSolver("UnreachableSwitchBranch", "src/test/resources/dataflow/deadcode/", "wto");
+    }
+
+    @Test
+    public void testWTOLoops() {
+        testSolver("Loops", "src/test/resources/dataflow/deadcode/", "wto");
+    }
+
+    @Test
+    public void testWTONonIntBranch() {
+        testSolver("NonIntBranch", "src/test/resources/dataflow/constprop/", "wto");
+    }
+}
@@ -0,0 +1,44 @@
+class NonIntBranch {
+
+    int referenceBranch(Object o) {
+        int x = 1;
+        if (o == null) {
+            x = 2;
+        }
+        return x;
+    }
+
+    int longBranch(long l) {
+        int x = 1;
+        int y = 10;
+        if (l > 0L) {
+            y = x + 1;
+        }
+        return y;
+    }
+
+    int doubleLoop(double d) {
+        int x = 0;
+        while (d < 100.0) {
+            d = d * 2;
+            x = 1;
+        }
+        return x;
+    }
+
+    int mixedBranches(int[] a, long l) {
+        int x = 3;
+        int y = 4;
+        if (a != null) {
+            if (x < y) {
+                y = 5; // always taken
+            } else {
+                y = 6;
+            }
+            if (l == 0L) {
+                x = y;
+            }
+        }
+        return x + y;
+    }
+}
@@ -34,7 +34,22 @@ import pascal.taie.language.classes.JMethod;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
 
+/**
+ * Builds the call graph of the program by CHA ({@code algorithm: cha})
+ * or RTA ({@code algorithm: rta}).
+ * <p>
+ * The CHA algorithm runs in parallel if the {@code parallelism} option
+ * is not {@code 1}:
+ * <ul>
+ *     <li>{@code 0}: uses the common fork-join pool,</li>
+ *     <li>absent or {@code 1}: builds the call graph on current thread,</li>
+ *     <li>{@code n > 1}: uses a dedicated fork-join pool of n workers.</li>
+ * </ul>
+ * If the {@code compact} option is true, the call graph is converted to
+ * a {@link CompactCallGraph} after construction.
+ */
 public class CallGraphBuilder extends ProgramAnalysis {
 
     public static final String ID = "cg";
@@ -48,22 +63,56 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     private final String algorithm;
 
+    private final int parallelism;
+
     public CallGraphBuilder(AnalysisConfig config) {
         super(config);
         algorithm = config.getOptions().getString("algorithm");
+        parallelism = getParallelism(config);
+    }
+
+    private static int getParallelism(AnalysisConfig config) {
+        Object parallelism = config.getOptions().get("parallelism");
+        if (parallelism == null) {
+            return 1;
+        }
+        if (parallelism instanceof Integer i && i >= 0) {
+            return i;
+        }
+        throw new ConfigException("Invalid parallelism of " +
+                config.getId() + ": " + parallelism);
     }
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder;
+        ForkJoinPool pool = null;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            if (parallelism == 1) {
+                builder = new CHABuilder();
+            } else {
+                pool = parallelism == 0 ?
+                        ForkJoinPool.commonPool() : new ForkJoinPool(parallelism);
+                builder = new ParallelCHABuilder(pool);
+            }
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
-        CallGraph<Invoke, JMethod> callGraph = builder.build();
-        ClassHierarchyImpl.setCheckCHA(false);
+        CallGraph<Invoke, JMethod> callGraph;
+        try {
+            callGraph = builder.build();
+        } finally {
+            ClassHierarchyImpl.setCheckCHA(false);
+            if (pool != null && parallelism != 0) {
+                pool.shutdown();
+            }
+        }
+        if (getOptions().getBooleanOrDefault("compact", false)) {
+            callGraph = new CompactCallGraph(callGraph);
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -24,6 +24,7 @@ package pascal.taie.analysis.graph.callgraph;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.config.Configs;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.exp.InvokeDynamic;
@@ -32,13 +33,19 @@ import pascal.taie.ir.exp.InvokeInterface;
 import pascal.taie.ir.exp.InvokeSpecial;
 import pascal.taie.ir.exp.InvokeStatic;
 import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.IDProvider;
 import pascal.taie.util.MapIDProvider;
 import pascal.taie.util.graph.DotDumper;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -96,6 +103,35 @@ public final class CallGraphs {
                 .dump(callGraph, output);
     }
 
+    /**
+     * Resolves the callee of a call site on a receiver object of given type.
+     * Dispatch results are memoized and shared with call graph builders.
+     *
+     * @param type type of the receiver object, which is ignored for
+     *             static and special calls
+     * @return the callee, or null if the callee cannot be resolved.
+     */
+    @Nullable
+    public static JMethod resolveCallee(@Nullable Type type, Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass jclass;
+        if (callSite.isVirtual() || callSite.isInterface()) {
+            if (type instanceof ClassType classType) {
+                jclass = classType.getJClass();
+            } else {
+                // array types only inherit methods from java.lang.Object
+                jclass = World.get().getClassHierarchy()
+                        .getJREClass(ClassNames.OBJECT);
+            }
+        } else if (callSite.isStatic() || callSite.isSpecial()) {
+            jclass = methodRef.getDeclaringClass();
+        } else {
+            return null;
+        }
+        return jclass != null ?
+                DispatchTable.dispatch(jclass, methodRef.getSubsignature()) : null;
+    }
+
     public static String toString(Invoke invoke) {
         return invoke.getContainer() + IRPrinter.toString(invoke);
     }
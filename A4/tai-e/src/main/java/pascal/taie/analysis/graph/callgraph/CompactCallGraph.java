@@ -0,0 +1,387 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph in compressed sparse row (CSR) form.
+ * <p>
+ * The reachable methods and the call sites in them are numbered, and
+ * the call sites of each method have consecutive numbers (in the order
+ * of their indexes in the IR). The call edges are stored in int arrays
+ * twice, grouped by call sites and by callees respectively, with their
+ * {@link CallKind}s in byte arrays. {@link Edge} objects are created
+ * on demand when the edges are queried.
+ * <p>
+ * A compact call graph is typically created from a {@link DefaultCallGraph}
+ * after its construction, to reduce the memory footprint of large
+ * call graphs.
+ */
+public final class CompactCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIds;
+
+    private final JMethod[] entryMethods;
+
+    /**
+     * The call sites of method i are {@code callSites[siteStarts[i]]}
+     * to {@code callSites[siteStarts[i + 1] - 1]}.
+     */
+    private final int[] siteStarts;
+
+    private final Invoke[] callSites;
+
+    /**
+     * Indexes of the call sites in the IR of their containers.
+     */
+    private final int[] siteIndexes;
+
+    /**
+     * The edges out of call site i are at {@code outStarts[i]}
+     * to {@code outStarts[i + 1] - 1} of {@link #outCallees}
+     * and {@link #outKinds}.
+     */
+    private final int[] outStarts;
+
+    private final int[] outCallees;
+
+    private final byte[] outKinds;
+
+    /**
+     * The edges into method i are at {@code inStarts[i]}
+     * to {@code inStarts[i + 1] - 1} of {@link #inCallSites}
+     * and {@link #inKinds}.
+     */
+    private final int[] inStarts;
+
+    private final int[] inCallSites;
+
+    private final byte[] inKinds;
+
+    /**
+     * Creates a compact copy of the given call graph.
+     */
+    public CompactCallGraph(CallGraph<Invoke, JMethod> callGraph) {
+        // number methods and call sites
+        methods = callGraph.reachableMethods().toArray(JMethod[]::new);
+        methodIds = Maps.newMap(methods.length);
+        for (int i = 0; i < methods.length; ++i) {
+            methodIds.put(methods[i], i);
+        }
+        entryMethods = callGraph.entryMethods().toArray(JMethod[]::new);
+        siteStarts = new int[methods.length + 1];
+        callSites = Arrays.stream(methods)
+                .flatMap(m -> callGraph.callSitesIn(m)
+                        .sorted(Comparator.comparingInt(Invoke::getIndex)))
+                .toArray(Invoke[]::new);
+        siteIndexes = new int[callSites.length];
+        for (int i = 0, site = 0; i < methods.length; ++i) {
+            siteStarts[i] = site;
+            site += callGraph.getCallSitesIn(methods[i]).size();
+        }
+        siteStarts[methods.length] = callSites.length;
+        for (int i = 0; i < callSites.length; ++i) {
+            siteIndexes[i] = callSites[i].getIndex();
+        }
+        // out edges, grouped by call sites
+        int nEdges = callGraph.getNumberOfEdges();
+        outStarts = new int[callSites.length + 1];
+        outCallees = new int[nEdges];
+        outKinds = new byte[nEdges];
+        int[] inDegrees = new int[methods.length + 1];
+        int edge = 0;
+        for (int i = 0; i < callSites.length; ++i) {
+            outStarts[i] = edge;
+            for (Iterator<Edge<Invoke, JMethod>> it =
+                 callGraph.edgesOutOf(callSites[i]).iterator(); it.hasNext(); ) {
+                Edge<Invoke, JMethod> e = it.next();
+                int callee = methodIds.get(e.getCallee());
+                outCallees[edge] = callee;
+                outKinds[edge] = (byte) e.getKind().ordinal();
+                ++inDegrees[callee + 1];
+                ++edge;
+            }
+        }
+        outStarts[callSites.length] = edge;
+        // in edges, grouped by callees (counting sort of out edges)
+        inStarts = inDegrees;
+        for (int i = 0; i < methods.length; ++i) {
+            inStarts[i + 1] += inStarts[i];
+        }
+        inCallSites = new int[nEdges];
+        inKinds = new byte[nEdges];
+        int[] next = Arrays.copyOf(inStarts, methods.length);
+        for (int site = 0; site < callSites.length; ++site) {
+            for (int e = outStarts[site]; e < outStarts[site + 1]; ++e) {
+                int pos = next[outCallees[e]]++;
+                inCallSites[pos] = site;
+                inKinds[pos] = outKinds[e];
+            }
+        }
+    }
+
+    /**
+     * @return number of given method, or -1 if it is not reachable.
+     */
+    private int getId(JMethod method) {
+        Integer id = methodIds.get(method);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @return number of given call site, or -1 if it is not
+     * in a reachable method.
+     */
+    private int getId(Invoke callSite) {
+        int method = getId(callSite.getContainer());
+        if (method < 0) {
+            return -1;
+        }
+        int from = siteStarts[method], to = siteStarts[method + 1];
+        int i = Arrays.binarySearch(siteIndexes, from, to, callSite.getIndex());
+        return i >= 0 && callSites[i] == callSite ? i : -1;
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        int id = getId(callee);
+        return id < 0 ? Set.of() :
+                new ArraySet<>(callSites, inCallSites, inStarts[id], inStarts[id + 1]);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int id = getId(callSite);
+        return id < 0 ? Set.of() :
+                new ArraySet<>(methods, outCallees, outStarts[id], outStarts[id + 1]);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        int id = getId(method);
+        return id < 0 ? Set.of() :
+                new ArraySet<>(callSites, null, siteStarts[id], siteStarts[id + 1]);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int id = getId(callSite);
+        return id < 0 ? Stream.of() : edgesOutOf(id);
+    }
+
+    private Stream<Edge<Invoke, JMethod>> edgesOutOf(int site) {
+        return IntStream.range(outStarts[site], outStarts[site + 1])
+                .mapToObj(e -> new Edge<>(KINDS[outKinds[e]],
+                        callSites[site], methods[outCallees[e]]));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int id = getId(method);
+        return id < 0 ? Stream.of() :
+                IntStream.range(inStarts[id], inStarts[id + 1])
+                        .mapToObj(e -> new Edge<>(KINDS[inKinds[e]],
+                                callSites[inCallSites[e]], method));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, callSites.length)
+                .boxed()
+                .flatMap(this::edgesOutOf);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return outCallees.length;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Arrays.stream(entryMethods);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return methodIds.containsKey(method);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        int s = getId(source), t = getId(target);
+        if (s < 0 || t < 0) {
+            return false;
+        }
+        for (int e = outStarts[siteStarts[s]]; e < outStarts[siteStarts[s + 1]]; ++e) {
+            if (outCallees[e] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return edgesInTo(method)
+                .map(e -> new MethodEdge<>(e.getCallSite().getContainer(),
+                        method, e.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return callSitesIn(method)
+                .flatMap(this::edgesOutOf)
+                .map(e -> new MethodEdge<>(method, e.getCallee(), e.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        return getCallersOf(node)
+                .stream()
+                .map(Invoke::getContainer)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        int id = getId(node);
+        return id < 0 ? Set.of() :
+                IntStream.range(outStarts[siteStarts[id]], outStarts[siteStarts[id + 1]])
+                        .mapToObj(e -> methods[outCallees[e]])
+                        .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return Collections.unmodifiableSet(methodIds.keySet());
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    /**
+     * Unmodifiable view of a range of an int array, whose elements are
+     * mapped to objects by their numbers. If the int array is null,
+     * the view is a range of the object array itself.
+     */
+    private static final class ArraySet<E> extends AbstractSet<E> {
+
+        private final E[] elements;
+
+        private final int[] ids;
+
+        private final int from;
+
+        private final int to;
+
+        private ArraySet(E[] elements, int[] ids, int from, int to) {
+            this.elements = elements;
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int index = i++;
+                    return elements[ids != null ? ids[index] : index];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
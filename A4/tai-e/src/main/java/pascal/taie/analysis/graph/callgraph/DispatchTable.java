@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Memoized virtual dispatch, i.e., the method that a call of a
+ * subsignature on an object of a class is dispatched to.
+ * <p>
+ * Each class has a dispatch table (subsignature to method), which is
+ * populated lazily. The tables are shared by all call sites and call
+ * graph builders, and are cleared when {@link World} is reset.
+ * This class is safe for concurrent use.
+ */
+final class DispatchTable {
+
+    private static final ConcurrentMap<JClass, ConcurrentMap<Subsignature, Object>> tables =
+            Maps.newConcurrentMap(4096);
+
+    static {
+        World.registerResetCallback(tables::clear);
+    }
+
+    /**
+     * Placeholder in dispatch tables for the subsignatures
+     * which cannot be dispatched to any method.
+     */
+    private static final Object NONE = new Object();
+
+    private DispatchTable() {
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature,
+     * i.e., the first non-abstract method with the subsignature in the class
+     * or its superclasses.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    static @Nullable JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        ConcurrentMap<Subsignature, Object> table = tables.get(jclass);
+        if (table == null) {
+            table = tables.computeIfAbsent(jclass, c -> Maps.newConcurrentMap());
+        }
+        Object target = table.get(subsignature);
+        if (target == null) {
+            JMethod method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                // the entries of superclasses are populated along the way
+                JClass superclass = jclass.getSuperClass();
+                method = superclass != null ?
+                        dispatch(superclass, subsignature) : null;
+            }
+            target = method != null ? method : NONE;
+            table.putIfAbsent(subsignature, target);
+        }
+        return target != NONE ? (JMethod) target : null;
+    }
+}
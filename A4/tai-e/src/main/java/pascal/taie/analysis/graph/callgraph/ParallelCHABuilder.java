@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel implementation of the CHA algorithm.
+ * <p>
+ * The reachable methods are discovered in waves. The call sites in the
+ * methods of a wave are resolved in parallel on a fork-join pool, and
+ * the callees which are reached for the first time form the next wave.
+ * The reachable methods and edges are collected in concurrent containers,
+ * and added to the call graph after the last wave, thus the result is
+ * the same as the call graph built by {@link CHABuilder}.
+ */
+class ParallelCHABuilder extends CHABuilder {
+
+    /**
+     * Maximum number of methods processed by a leaf task.
+     */
+    private static final int METHODS_PER_TASK = 16;
+
+    private final ForkJoinPool pool;
+
+    ParallelCHABuilder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        Set<JMethod> reached = Sets.newConcurrentSet();
+        Queue<Edge<Invoke, JMethod>> edges = new ConcurrentLinkedQueue<>();
+        List<JMethod> methods = new ArrayList<>();
+        reached.add(entry);
+        List<JMethod> wave = List.of(entry);
+        while (!wave.isEmpty()) {
+            methods.addAll(wave);
+            Queue<JMethod> next = new ConcurrentLinkedQueue<>();
+            pool.invoke(new WaveTask(wave, 0, wave.size(), reached, edges, next));
+            wave = new ArrayList<>(next);
+        }
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        methods.forEach(callGraph::addReachableMethod);
+        edges.forEach(callGraph::addEdge);
+        return callGraph;
+    }
+
+    private class WaveTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<JMethod> wave;
+
+        private final int from;
+
+        private final int to;
+
+        private final Set<JMethod> reached;
+
+        private final Queue<Edge<Invoke, JMethod>> edges;
+
+        private final Queue<JMethod> next;
+
+        private WaveTask(List<JMethod> wave, int from, int to,
+                         Set<JMethod> reached,
+                         Queue<Edge<Invoke, JMethod>> edges,
+                         Queue<JMethod> next) {
+            this.wave = wave;
+            this.from = from;
+            this.to = to;
+            this.reached = reached;
+            this.edges = edges;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= METHODS_PER_TASK) {
+                for (int i = from; i < to; ++i) {
+                    process(wave.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new WaveTask(wave, from, mid, reached, edges, next),
+                        new WaveTask(wave, mid, to, reached, edges, next));
+            }
+        }
+
+        private void process(JMethod method) {
+            if (method.isAbstract()) {
+                return;
+            }
+            // each method is processed by exactly one task, so its IR
+            // is never built by two threads
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof Invoke callSite) {
+                    CallKind kind = CallGraphs.getCallKind(callSite);
+                    for (JMethod callee : resolve(callSite)) {
+                        edges.add(new Edge<>(kind, callSite, callee));
+                        if (reached.add(callee)) {
+                            next.add(callee);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (Rapid Type Analysis) algorithm.
+ * <p>
+ * Unlike CHA, a virtual call site is only resolved to the targets
+ * dispatched on the classes which are instantiated in reachable methods,
+ * i.e., the classes of the {@link New} statements, the classes of the
+ * reference literals (e.g., {@code java.lang.String} for string literals
+ * and {@code java.lang.Class} for class literals), and the caught
+ * exception classes of the exception handlers, as the exceptions may be
+ * thrown by the JVM. Arrays are treated as instances of
+ * {@code java.lang.Object}, as they dispatch to its methods.
+ * When a class is instantiated for the first time, it is dispatched on
+ * the virtual call sites reached so far whose declaring class is one of
+ * its supertypes.
+ * <p>
+ * Other classes instantiated implicitly (e.g., by reflection or by
+ * native code) are not taken into account.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private SubtypeIndex subtypes;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private Set<JClass> instantiated;
+
+    /**
+     * Reached virtual call sites, indexed by the declaring classes
+     * of their method references.
+     */
+    private MultiMap<JClass, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        subtypes = new SubtypeIndex(hierarchy);
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        workList = new ArrayDeque<>();
+        instantiated = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                IR ir = method.getIR();
+                for (Stmt stmt : ir) {
+                    if (stmt instanceof New newStmt) {
+                        instantiate(newStmt.getRValue().getType());
+                    } else if (stmt instanceof AssignLiteral assign
+                            && assign.getRValue() instanceof ReferenceLiteral literal) {
+                        instantiate(literal.getType());
+                    } else if (stmt instanceof Invoke callSite) {
+                        processCallSite(callSite);
+                    }
+                }
+                for (ExceptionEntry exceptionEntry : ir.getExceptionEntries()) {
+                    instantiate(exceptionEntry.catchType());
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    private void instantiate(Type type) {
+        JClass jclass = type instanceof ClassType classType ?
+                classType.getJClass() :
+                hierarchy.getJREClass(ClassNames.OBJECT);
+        if (jclass == null || !instantiated.add(jclass)) {
+            return;
+        }
+        // dispatch the new class on the reached call sites
+        // declared in its superclasses and superinterfaces
+        Set<JClass> visited = Sets.newSet();
+        Queue<JClass> supertypes = new ArrayDeque<>();
+        supertypes.add(jclass);
+        while (!supertypes.isEmpty()) {
+            JClass supertype = supertypes.poll();
+            if (visited.add(supertype)) {
+                for (Invoke callSite : virtualCallSites.get(supertype)) {
+                    addEdge(callSite, CallGraphs.resolveCallee(
+                            jclass.getType(), callSite));
+                }
+                if (supertype.getSuperClass() != null) {
+                    supertypes.add(supertype.getSuperClass());
+                }
+                supertypes.addAll(supertype.getInterfaces());
+            }
+        }
+    }
+
+    private void processCallSite(Invoke callSite) {
+        JClass declaringClass = callSite.getMethodRef().getDeclaringClass();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC, SPECIAL -> addEdge(callSite,
+                    CallGraphs.resolveCallee(null, callSite));
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(declaringClass, callSite);
+                subtypes.forEachSubtype(declaringClass, jclass -> {
+                    if (instantiated.contains(jclass)) {
+                        addEdge(callSite, CallGraphs.resolveCallee(
+                                jclass.getType(), callSite));
+                    }
+                });
+            }
+        }
+    }
+
+    private void addEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
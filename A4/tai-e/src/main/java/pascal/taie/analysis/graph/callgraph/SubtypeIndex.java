@@ -0,0 +1,177 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Index of the (reflexive and transitive) subtypes of the classes
+ * and interfaces in a class hierarchy.
+ * <p>
+ * The classes are numbered in pre-order of the class tree, so that
+ * the subclasses of a class occupy a contiguous interval of numbers
+ * right after it. The interfaces are numbered after all classes, and
+ * the subtypes of each interface are kept in a bit set over the numbers,
+ * which is computed on first use from the intervals of its implementors
+ * and the bit sets of its subinterfaces.
+ * <p>
+ * The index is a snapshot of the hierarchy when it is created.
+ * This class is safe for concurrent use.
+ */
+final class SubtypeIndex {
+
+    /**
+     * Types ordered by their numbers.
+     */
+    private final JClass[] types;
+
+    private final Map<JClass, Integer> numbers;
+
+    /**
+     * For each class, the (exclusive) end of the interval of its subclasses.
+     */
+    private final int[] ends;
+
+    /**
+     * Number of classes, i.e., the first number of interfaces.
+     */
+    private final int classCount;
+
+    private final ClassHierarchy hierarchy;
+
+    private final ConcurrentMap<JClass, BitSet> interfaceSubtypes =
+            Maps.newConcurrentMap();
+
+    SubtypeIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        List<JClass> classes = hierarchy.allClasses().toList();
+        numbers = Maps.newMap(classes.size());
+        classes.forEach(c -> numbers.put(c, -1));
+        types = new JClass[classes.size()];
+        ends = new int[classes.size()];
+        // number the classes by iterative DFS over the class tree
+        int next = 0;
+        Deque<Iterator<JClass>> stack = new ArrayDeque<>();
+        Deque<Integer> starts = new ArrayDeque<>();
+        for (JClass root : classes) {
+            if (root.isInterface() || !isRoot(root)) {
+                continue;
+            }
+            next = visit(root, next, stack, starts);
+            while (!stack.isEmpty()) {
+                Iterator<JClass> children = stack.peek();
+                if (children.hasNext()) {
+                    JClass child = children.next();
+                    Integer number = numbers.get(child);
+                    // ignore unknown and already numbered classes
+                    if (number != null && number == -1) {
+                        next = visit(child, next, stack, starts);
+                    }
+                } else {
+                    stack.pop();
+                    ends[starts.pop()] = next;
+                }
+            }
+        }
+        classCount = next;
+        for (JClass jclass : classes) {
+            if (jclass.isInterface()) {
+                numbers.put(jclass, next);
+                types[next] = jclass;
+                ends[next] = next + 1;
+                ++next;
+            }
+        }
+    }
+
+    private boolean isRoot(JClass jclass) {
+        JClass superclass = jclass.getSuperClass();
+        return superclass == null || !numbers.containsKey(superclass);
+    }
+
+    private int visit(JClass jclass, int number, Deque<Iterator<JClass>> stack,
+                      Deque<Integer> starts) {
+        numbers.put(jclass, number);
+        types[number] = jclass;
+        stack.push(hierarchy.getDirectSubclassesOf(jclass).iterator());
+        starts.push(number);
+        return number + 1;
+    }
+
+    /**
+     * Applies {@code action} to {@code type} and each of its direct and
+     * indirect subclasses, subinterfaces and implementors, once per type.
+     */
+    void forEachSubtype(JClass type, Consumer<JClass> action) {
+        Integer t = numbers.get(type);
+        if (t == null) { // the type is not in the hierarchy
+            action.accept(type);
+        } else if (type.isInterface()) {
+            BitSet subtypes = getInterfaceSubtypes(type);
+            for (int i = subtypes.nextSetBit(0); i >= 0;
+                 i = subtypes.nextSetBit(i + 1)) {
+                action.accept(types[i]);
+            }
+        } else {
+            for (int i = t; i < ends[t]; ++i) {
+                action.accept(types[i]);
+            }
+        }
+    }
+
+    private BitSet getInterfaceSubtypes(JClass iface) {
+        BitSet subtypes = interfaceSubtypes.get(iface);
+        if (subtypes == null) {
+            // interfaces form a DAG, so the recursion terminates
+            subtypes = new BitSet(types.length);
+            subtypes.set(numbers.get(iface));
+            for (JClass impl : hierarchy.getDirectImplementorsOf(iface)) {
+                Integer i = numbers.get(impl);
+                if (i != null && i < classCount) {
+                    subtypes.set(i, ends[i]);
+                }
+            }
+            for (JClass subiface : hierarchy.getDirectSubinterfacesOf(iface)) {
+                if (numbers.containsKey(subiface)) {
+                    subtypes.or(getInterfaceSubtypes(subiface));
+                }
+            }
+            BitSet prev = interfaceSubtypes.putIfAbsent(iface, subtypes);
+            if (prev != null) {
+                subtypes = prev;
+            }
+        }
+        return subtypes;
+    }
+}
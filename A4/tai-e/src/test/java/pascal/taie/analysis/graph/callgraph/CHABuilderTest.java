@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the call graphs built by {@link CHABuilder}, which uses the
+ * memoized {@link DispatchTable} and the {@link SubtypeIndex}, with the
+ * call graphs built by a straightforward implementation of CHA,
+ * and checks that {@link ParallelCHABuilder} builds the same call graphs.
+ */
+public class CHABuilderTest {
+
+    void testCHA(String main) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", main, "-a", "cg=algorithm:cha"});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Set<JMethod> reachable = new HashSet<>();
+        Map<Invoke, Set<JMethod>> expected = buildNaiveCHA(
+                World.get().getClassHierarchy(), World.get().getMainMethod(), reachable);
+        Assert.assertEquals(reachable,
+                callGraph.reachableMethods().collect(Collectors.toSet()));
+        expected.forEach((callSite, callees) ->
+                Assert.assertEquals("callees of " + CallGraphs.toString(callSite),
+                        callees, callGraph.getCalleesOf(callSite)));
+        // the parallel builder must produce the same call graph
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CallGraph<Invoke, JMethod> parallel = new ParallelCHABuilder(pool).build();
+            Assert.assertEquals(reachable,
+                    parallel.reachableMethods().collect(Collectors.toSet()));
+            Assert.assertEquals(callGraph.getNumberOfEdges(), parallel.getNumberOfEdges());
+            expected.forEach((callSite, callees) ->
+                    Assert.assertEquals("parallel callees of " + CallGraphs.toString(callSite),
+                            callees, parallel.getCalleesOf(callSite)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Collects the methods reachable from given entry into {@code reachable}.
+     *
+     * @return the callees of the reachable call sites.
+     */
+    private static Map<Invoke, Set<JMethod>> buildNaiveCHA(
+            ClassHierarchy hierarchy, JMethod entry, Set<JMethod> reachable) {
+        Map<Invoke, Set<JMethod>> callees = new HashMap<>();
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (!reachable.add(method) || method.isAbstract()) {
+                continue;
+            }
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof Invoke callSite) {
+                    Set<JMethod> targets = resolve(hierarchy, callSite);
+                    callees.put(callSite, targets);
+                    workList.addAll(targets);
+                }
+            }
+        }
+        return callees;
+    }
+
+    private static Set<JMethod> resolve(ClassHierarchy hierarchy, Invoke callSite) {
+        JClass declaringClass = callSite.getMethodRef().getDeclaringClass();
+        Subsignature subsignature = callSite.getMethodRef().getSubsignature();
+        Set<JMethod> targets = new HashSet<>();
+        if (callSite.isStatic() || callSite.isSpecial()) {
+            JMethod target = dispatch(declaringClass, subsignature);
+            if (target != null) {
+                targets.add(target);
+            }
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            Set<JClass> visited = new HashSet<>();
+            Queue<JClass> queue = new ArrayDeque<>();
+            queue.add(declaringClass);
+            while (!queue.isEmpty()) {
+                JClass jclass = queue.poll();
+                if (!visited.add(jclass)) {
+                    continue;
+                }
+                JMethod target = dispatch(jclass, subsignature);
+                if (target != null) {
+                    targets.add(target);
+                }
+                queue.addAll(hierarchy.getDirectSubclassesOf(jclass));
+                if (jclass.isInterface()) {
+                    queue.addAll(hierarchy.getDirectSubinterfacesOf(jclass));
+                    queue.addAll(hierarchy.getDirectImplementorsOf(jclass));
+                }
+            }
+        }
+        return targets;
+    }
+
+    static JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod method = c.getDeclaredMethod(subsignature);
+            if (method != null && !method.isAbstract()) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testStaticCall() {
+        testCHA("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        testCHA("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        testCHA("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        testCHA("AbstractMethod");
+    }
+
+    @Test
+    public void testHierarchy() {
+        testCHA("Hierarchy");
+    }
+}
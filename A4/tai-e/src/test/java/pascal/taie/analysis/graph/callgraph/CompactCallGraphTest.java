@@ -0,0 +1,156 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks that {@link CompactCallGraph} answers every query
+ * the same as the call graph it is copied from.
+ */
+public class CompactCallGraphTest {
+
+    void testCompact(String classPath, String main, String algorithm) {
+        Main.main(new String[]{"-pp", "-cp", classPath,
+                "-m", main, "-a", "cg=algorithm:" + algorithm});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        CompactCallGraph compact = new CompactCallGraph(callGraph);
+        // whole-graph queries
+        Assert.assertEquals(callGraph.getNumberOfMethods(), compact.getNumberOfMethods());
+        Assert.assertEquals(callGraph.getNumberOfEdges(), compact.getNumberOfEdges());
+        Assert.assertEquals(toSet(callGraph.entryMethods()), toSet(compact.entryMethods()));
+        Assert.assertEquals(toSet(callGraph.reachableMethods()), toSet(compact.reachableMethods()));
+        Assert.assertEquals(callGraph.getNodes(), compact.getNodes());
+        Assert.assertEquals(toSet(callGraph.edges()), toSet(compact.edges()));
+        // per-method queries, also on methods which are not reachable
+        List<JMethod> methods = Stream.concat(callGraph.reachableMethods(),
+                        World.get().getClassHierarchy().applicationClasses()
+                                .flatMap(c -> c.getDeclaredMethods().stream()))
+                .distinct()
+                .toList();
+        for (JMethod method : methods) {
+            String message = " of " + method;
+            Assert.assertEquals("contains" + message,
+                    callGraph.contains(method), compact.contains(method));
+            Assert.assertEquals("hasNode" + message,
+                    callGraph.hasNode(method), compact.hasNode(method));
+            Assert.assertEquals("callers" + message,
+                    callGraph.getCallersOf(method), compact.getCallersOf(method));
+            Assert.assertEquals("callees" + message,
+                    callGraph.getCalleesOfM(method), compact.getCalleesOfM(method));
+            Assert.assertEquals("call sites" + message,
+                    callGraph.getCallSitesIn(method), compact.getCallSitesIn(method));
+            Assert.assertEquals("call sites" + message,
+                    toSet(callGraph.callSitesIn(method)), toSet(compact.callSitesIn(method)));
+            Assert.assertEquals("in edges" + message,
+                    toSet(callGraph.edgesInTo(method)), toSet(compact.edgesInTo(method)));
+            Assert.assertEquals("in edges" + message,
+                    callGraph.getInEdgesOf(method), compact.getInEdgesOf(method));
+            Assert.assertEquals("out edges" + message,
+                    callGraph.getOutEdgesOf(method), compact.getOutEdgesOf(method));
+            Assert.assertEquals("preds" + message,
+                    callGraph.getPredsOf(method), compact.getPredsOf(method));
+            Assert.assertEquals("succs" + message,
+                    callGraph.getSuccsOf(method), compact.getSuccsOf(method));
+            for (JMethod target : methods) {
+                Assert.assertEquals("edge from " + method + " to " + target,
+                        callGraph.hasEdge(method, target), compact.hasEdge(method, target));
+            }
+        }
+        // per-call-site queries, also on call sites which are not reachable
+        for (JMethod method : methods) {
+            if (method.isAbstract()) {
+                continue;
+            }
+            boolean reachable = callGraph.contains(method);
+            for (Stmt stmt : method.getIR()) {
+                Assert.assertEquals(callGraph.isRelevant(stmt), compact.isRelevant(stmt));
+                if (stmt instanceof Invoke callSite) {
+                    String message = " of " + CallGraphs.toString(callSite);
+                    Assert.assertEquals("callees" + message,
+                            callGraph.getCalleesOf(callSite), compact.getCalleesOf(callSite));
+                    Assert.assertEquals("out edges" + message,
+                            toSet(callGraph.edgesOutOf(callSite)),
+                            toSet(compact.edgesOutOf(callSite)));
+                    Assert.assertEquals("result" + message,
+                            callGraph.getResult(callSite), compact.getResult(callSite));
+                    if (reachable) {
+                        Assert.assertEquals("container" + message,
+                                callGraph.getContainerOf(callSite),
+                                compact.getContainerOf(callSite));
+                    }
+                }
+            }
+        }
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testCHAStaticCall() {
+        testCompact("src/test/resources/cha/", "StaticCall", "cha");
+    }
+
+    @Test
+    public void testCHAVirtualCall() {
+        testCompact("src/test/resources/cha/", "VirtualCall", "cha");
+    }
+
+    @Test
+    public void testCHAInterface() {
+        testCompact("src/test/resources/cha/", "Interface", "cha");
+    }
+
+    @Test
+    public void testCHAAbstractMethod() {
+        testCompact("src/test/resources/cha/", "AbstractMethod", "cha");
+    }
+
+    @Test
+    public void testCHAHierarchy() {
+        testCompact("src/test/resources/cha/", "Hierarchy", "cha");
+    }
+
+    @Test
+    public void testRTAVirtualCall() {
+        testCompact("src/test/resources/rta/", "VirtualCall", "rta");
+    }
+
+    @Test
+    public void testRTAInterface() {
+        testCompact("src/test/resources/rta/", "Interface", "rta");
+    }
+}
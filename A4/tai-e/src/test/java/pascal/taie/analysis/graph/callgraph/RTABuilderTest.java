@@ -0,0 +1,193 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the call graphs built by {@link RTABuilder}, which dispatches
+ * new classes incrementally on the reached call sites, with the call graphs
+ * built by a straightforward fixed-point implementation of RTA.
+ */
+public class RTABuilderTest {
+
+    void testRTA(String main) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/rta/",
+                "-m", main, "-a", "cg=algorithm:rta"});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Set<JMethod> reachable = new HashSet<>();
+        Map<Invoke, Set<JMethod>> expected = buildNaiveRTA(
+                World.get().getMainMethod(), reachable);
+        Assert.assertEquals(reachable,
+                callGraph.reachableMethods().collect(Collectors.toSet()));
+        expected.forEach((callSite, callees) ->
+                Assert.assertEquals("callees of " + CallGraphs.toString(callSite),
+                        callees, callGraph.getCalleesOf(callSite)));
+    }
+
+    /**
+     * Re-resolves all call sites of the reachable methods on the instantiated
+     * classes until neither the reachable methods nor the instantiated
+     * classes change, and collects the reachable methods into {@code reachable}.
+     *
+     * @return the callees of the reachable call sites.
+     */
+    private static Map<Invoke, Set<JMethod>> buildNaiveRTA(
+            JMethod entry, Set<JMethod> reachable) {
+        Set<JClass> instantiated = new HashSet<>();
+        Map<Invoke, Set<JMethod>> callees;
+        reachable.add(entry);
+        boolean changed;
+        do {
+            changed = false;
+            callees = new HashMap<>();
+            for (JMethod method : List.copyOf(reachable)) {
+                if (method.isAbstract()) {
+                    continue;
+                }
+                IR ir = method.getIR();
+                for (Stmt stmt : ir) {
+                    if (stmt instanceof New newStmt) {
+                        changed |= instantiate(instantiated, newStmt.getRValue().getType());
+                    } else if (stmt instanceof AssignLiteral assign
+                            && assign.getRValue() instanceof ReferenceLiteral literal) {
+                        changed |= instantiate(instantiated, literal.getType());
+                    }
+                }
+                for (ExceptionEntry exceptionEntry : ir.getExceptionEntries()) {
+                    changed |= instantiate(instantiated, exceptionEntry.catchType());
+                }
+                for (Stmt stmt : ir) {
+                    if (stmt instanceof Invoke callSite) {
+                        Set<JMethod> targets = resolve(instantiated, callSite);
+                        callees.put(callSite, targets);
+                        changed |= reachable.addAll(targets);
+                    }
+                }
+            }
+        } while (changed);
+        return callees;
+    }
+
+    private static boolean instantiate(Set<JClass> instantiated, Type type) {
+        JClass jclass = type instanceof ClassType classType ?
+                classType.getJClass() :
+                World.get().getClassHierarchy().getJREClass(ClassNames.OBJECT);
+        return jclass != null && instantiated.add(jclass);
+    }
+
+    private static Set<JMethod> resolve(Set<JClass> instantiated, Invoke callSite) {
+        JClass declaringClass = callSite.getMethodRef().getDeclaringClass();
+        Subsignature subsignature = callSite.getMethodRef().getSubsignature();
+        Set<JMethod> targets = new HashSet<>();
+        if (callSite.isStatic() || callSite.isSpecial()) {
+            JMethod target = CHABuilderTest.dispatch(declaringClass, subsignature);
+            if (target != null) {
+                targets.add(target);
+            }
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            for (JClass jclass : instantiated) {
+                if (isSubtype(declaringClass, jclass)) {
+                    JMethod target = CHABuilderTest.dispatch(jclass, subsignature);
+                    if (target != null) {
+                        targets.add(target);
+                    }
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @return true if {@code subclass} is {@code superclass} or inherits it
+     * via its superclasses and superinterfaces, otherwise false.
+     */
+    private static boolean isSubtype(JClass superclass, JClass subclass) {
+        Set<JClass> visited = new HashSet<>();
+        Queue<JClass> queue = new ArrayDeque<>();
+        queue.add(subclass);
+        while (!queue.isEmpty()) {
+            JClass jclass = queue.poll();
+            if (jclass == superclass) {
+                return true;
+            }
+            if (visited.add(jclass)) {
+                if (jclass.getSuperClass() != null) {
+                    queue.add(jclass.getSuperClass());
+                }
+                queue.addAll(jclass.getInterfaces());
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testStaticCall() {
+        testRTA("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        testRTA("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        testRTA("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        testRTA("AbstractMethod");
+    }
+
+    @Test
+    public void testImplicit() {
+        testRTA("Implicit");
+    }
+}
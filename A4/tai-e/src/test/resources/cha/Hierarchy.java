@@ -0,0 +1,73 @@
+public class Hierarchy {
+
+    public static void main(String[] args) {
+        Shape s = new Square();
+        s.area();
+        Named n = new Circle();
+        n.name();
+        Polygon p = new Triangle();
+        p.sides();
+        p.area();
+    }
+}
+
+interface Named {
+    String name();
+}
+
+interface Shape extends Named {
+    int area();
+}
+
+abstract class Polygon implements Shape {
+
+    abstract int sides();
+
+    public String name() {
+        return "polygon";
+    }
+}
+
+class Triangle extends Polygon {
+
+    int sides() {
+        return 3;
+    }
+
+    public int area() {
+        return 1;
+    }
+}
+
+class Square extends Polygon {
+
+    int sides() {
+        return 4;
+    }
+
+    public int area() {
+        return 4;
+    }
+
+    public String name() {
+        return "square";
+    }
+}
+
+class Circle implements Shape {
+
+    public int area() {
+        return 3;
+    }
+
+    public String name() {
+        return "circle";
+    }
+}
+
+class Ring extends Circle {
+
+    public int area() {
+        return 2;
+    }
+}
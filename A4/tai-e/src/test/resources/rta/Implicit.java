@@ -0,0 +1,25 @@
+import java.lang.reflect.Type;
+
+public class Implicit {
+
+    public static void main(String[] args) {
+        CharSequence s = "RTA";
+        s.length();
+        Type t = Implicit.class;
+        t.getTypeName();
+        try {
+            check(args);
+        } catch (Failure f) {
+            f.report();
+        }
+    }
+
+    static void check(String[] args) {
+    }
+}
+
+class Failure extends RuntimeException {
+
+    void report() {
+    }
+}